@@ -0,0 +1,190 @@
+package com.example.manual.bench;
+
+import com.example.manual.AssetIndex;
+import com.example.manual.ContentPack;
+import com.example.manual.MimeTypes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 基准测试用的资源目录
+ *
+ * 在临时目录下生成与APK中assets目录相同的结构：
+ *   dist/index.html               小文档（约4KB）
+ *   dist/assets/index-<hash>.js   中等脚本（约64KB，会进入缓存）
+ *   dist/index.html.gz 等         上面两个文件的gzip预压缩版本（与 AssetPacker index --precompress=gzip 相同）
+ *   dist/assets/chunk-N-<hash>.js 若干小模块，让索引的规模接近真实的前端构建产物
+ *   dist/media/intro.mp4          大文件（4MB，超过缓存单文件上限，按 STORED 方式存放）
+ *   dist.index                    由 AssetIndex.write 生成的索引
+ * 另外生成一个 assets.zip，条目的压缩方式与 AssetPacker pack 写入APK时相同，
+ * 以及一个内容包 dist.pack（与 AssetPacker bundle 的输出相同）
+ */
+final class AssetFixture {
+    static final String ASSET_BASE = "dist";
+
+    static final String SMALL_PATH = "/index.html";
+    static final String MEDIUM_PATH = "/assets/index-D8kP2xY1.js";
+    static final String LARGE_PATH = "/media/intro.mp4";
+    static final String MISSING_PATH = "/assets/missing-0000.js";
+
+    static final int SMALL_SIZE = 4 * 1024;
+    static final int MEDIUM_SIZE = 64 * 1024;
+    static final int LARGE_SIZE = 4 * 1024 * 1024;
+    static final int CHUNK_COUNT = 200;
+    static final int CHUNK_SIZE = 2 * 1024;
+
+    final File root; // 相当于assets目录
+    final File zip; // 相当于APK
+    final File pack; // 内容包
+    final String[] urlPaths; // 索引中的全部URL路径，用于路径查找测试
+
+    private AssetFixture(File root, File zip, File pack, String[] urlPaths) {
+        this.root = root;
+        this.zip = zip;
+        this.pack = pack;
+        this.urlPaths = urlPaths;
+    }
+
+    static AssetFixture create() throws IOException {
+        File root = Files.createTempDirectory("asset-bench").toFile();
+        File dist = new File(root, ASSET_BASE);
+        Random random = new Random(42); // 固定种子，每次运行的内容相同
+
+        List<AssetIndex.Entry> entries = new ArrayList<>();
+        writeWithGzip(dist, SMALL_PATH, text(random, SMALL_SIZE), entries);
+        writeWithGzip(dist, MEDIUM_PATH, text(random, MEDIUM_SIZE), entries);
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            entries.add(write(dist, "/assets/chunk-" + i + "-Bx" + (10000000 + i) + ".js", text(random, CHUNK_SIZE)));
+        }
+        byte[] media = new byte[LARGE_SIZE];
+        random.nextBytes(media);
+        entries.add(write(dist, LARGE_PATH, media));
+
+        try (OutputStream out = new FileOutputStream(new File(root, ASSET_BASE + ".index"))) {
+            AssetIndex.write(out, entries);
+        }
+
+        File zip = new File(root, "assets.zip");
+        writeZip(root, entries, zip);
+
+        File pack = new File(root, ASSET_BASE + ".pack");
+        ContentPack.write(pack, dist, entries);
+
+        String[] urlPaths = new String[entries.size()];
+        for (int i = 0; i < urlPaths.length; i++) {
+            urlPaths[i] = "/" + entries.get(i).path;
+        }
+        return new AssetFixture(root, zip, pack, urlPaths);
+    }
+
+    /**
+     * 删除临时目录
+     */
+    void delete() throws IOException {
+        try (Stream<java.nio.file.Path> walk = Files.walk(root.toPath())) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * 写出一个文件并生成对应的索引条目（标志规则与 AssetPacker 相同：已压缩的格式标记为"s"）
+     */
+    private static AssetIndex.Entry write(File dist, String urlPath, byte[] data) throws IOException {
+        String path = urlPath.substring(1);
+        File file = new File(dist, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), data);
+
+        String mime = MimeTypes.fromPath(path);
+        String flags = MimeTypes.isPrecompressed(mime) ? "s" : "-";
+        return new AssetIndex.Entry(ASSET_BASE, path, data.length, mime, flags, hash(data));
+    }
+
+    /**
+     * 写出一个文件和它的 .gz 预压缩版本，两者都加入索引，原文件带"g"标志
+     */
+    private static void writeWithGzip(File dist, String urlPath, byte[] data, List<AssetIndex.Entry> entries)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        }
+        entries.add(write(dist, urlPath + ".gz", buffer.toByteArray()));
+
+        AssetIndex.Entry entry = write(dist, urlPath, data);
+        String flags = entry.flags.equals("-") ? "g" : entry.flags + "g";
+        entries.add(new AssetIndex.Entry(ASSET_BASE, entry.path, entry.size, entry.mimeType, flags, entry.hash));
+    }
+
+    /**
+     * 生成可压缩的文本内容（模拟JS/HTML），压缩率与真实的前端代码接近
+     */
+    private static byte[] text(Random random, int size) {
+        String[] words = {"function", "return", "const", "let", "this", "document", "=>", "{", "}", "(", ")", ";",
+            "createElement", "addEventListener", "querySelector", "null", "true", "false", "0", "1"};
+        StringBuilder sb = new StringBuilder(size + 32);
+        while (sb.length() < size) {
+            sb.append(words[random.nextInt(words.length)]).append(random.nextInt(8) == 0 ? '\n' : ' ');
+        }
+        sb.setLength(size);
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String hash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 10; i++) {
+                sb.append(String.format("%02x", digest[i] & 0xff));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 按 AssetPacker pack 的规则写zip：带"s"标志的条目 STORED，其余 DEFLATED
+     */
+    private static void writeZip(File root, List<AssetIndex.Entry> entries, File zip) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            putEntry(out, ASSET_BASE + ".index", Files.readAllBytes(new File(root, ASSET_BASE + ".index").toPath()),
+                false);
+            for (AssetIndex.Entry e : entries) {
+                putEntry(out, e.assetPath, Files.readAllBytes(new File(root, e.assetPath).toPath()), e.stored);
+            }
+        }
+    }
+
+    private static void putEntry(ZipOutputStream out, String name, byte[] data, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry("assets/" + name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.manual.bench;
+
+import com.example.manual.AssetCache;
+import com.example.manual.AssetIndex;
+import com.example.manual.AssetMetrics;
+import com.example.manual.AssetResponse;
+import com.example.manual.AssetServer;
+import com.example.manual.AssetSource;
+import com.example.manual.AsyncStreamer;
+import com.example.manual.ContentPack;
+import com.example.manual.DirectoryAssetSource;
+import com.example.manual.MimeTypes;
+import com.example.manual.ZipAssetSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+/**
+ * 资源处理路径的基准测试（单线程）
+ *
+ * 测试项：
+ *   resolvePath   在索引中查找URL路径（逐个轮换索引中的全部路径）
+ *   mimeLookup    按扩展名查找MIME类型
+ *   notFound      未命中索引的请求，生成并读完404响应
+ *   serveSmall    完整读取小文档（4KB）
+ *   serveMedium   完整读取中等脚本（64KB）
+ *   serveMediumGzip 请求声明 Accept-Encoding: gzip，完整读取中等脚本的 .gz 预压缩版本
+ *   serveLarge    完整读取大文件（4MB，不进入缓存）
+ *   serveRange    读取大文件中间的1MB（Range请求）
+ *
+ * 参数：
+ *   source  directory（本地文件）/ zip（与APK相同的压缩方式）/ pack（内存映射的内容包）
+ *   cache   on（与APP相同的8MB/512KB缓存）/ off
+ *   metrics on / off（开启统计时每个请求多出的开销）
+ *   async   on（响应体交给 AsyncStreamer，4个线程）/ off
+ *
+ * 多线程版本见 AssetServerConcurrentBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(1)
+public class AssetServerBenchmark {
+
+    // 与 ManualApp 中的配置相同
+    private static final long CACHE_BYTES = 8L * 1024 * 1024;
+    private static final int CACHE_MAX_ENTRY_BYTES = 512 * 1024;
+
+    @Param({"directory", "zip", "pack"})
+    public String source;
+
+    @Param({"on", "off"})
+    public String cache;
+
+    @Param({"off"})
+    public String metrics;
+
+    @Param({"off"})
+    public String async;
+
+    private AssetFixture fixture;
+    private ZipFile zipFile;
+    private AssetServer server;
+    private AssetIndex index;
+    private AsyncStreamer streamer;
+
+    // 模拟WebView的请求头（shouldInterceptRequest 拿到的请求头通常不带 Accept-Encoding）
+    private final Map<String, String> requestHeaders = new HashMap<>();
+    // 声明支持压缩的请求头，走预压缩版本的路径
+    private final Map<String, String> encodedHeaders = new HashMap<>();
+    private final Map<String, String> rangeHeaders = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        fixture = AssetFixture.create();
+
+        AssetSource assetSource;
+        if (source.equals("pack")) {
+            // 内容包自带文件表，不读取 dist.index
+            ContentPack pack = ContentPack.open(fixture.pack, AssetFixture.ASSET_BASE);
+            assetSource = pack;
+            index = pack.index();
+        } else {
+            if (source.equals("zip")) {
+                zipFile = new ZipFile(fixture.zip);
+                assetSource = new ZipAssetSource(zipFile, "assets/");
+            } else {
+                assetSource = new DirectoryAssetSource(fixture.root);
+            }
+            index = AssetServer.readIndex(assetSource, AssetFixture.ASSET_BASE);
+        }
+        AssetMetrics assetMetrics = metrics.equals("on") ? new AssetMetrics() : null;
+        streamer = async.equals("on") ? new AsyncStreamer(4, 64, assetMetrics) : null;
+        server = new AssetServer(assetSource, AssetFixture.ASSET_BASE, index,
+            cache.equals("on") ? new AssetCache(CACHE_BYTES, CACHE_MAX_ENTRY_BYTES) : null,
+            assetMetrics, streamer);
+
+        requestHeaders.put("Accept", "*/*");
+        requestHeaders.put("User-Agent", "Mozilla/5.0 (Linux; Android 14) AppleWebKit/537.36 Chrome/126.0 Mobile");
+        encodedHeaders.putAll(requestHeaders);
+        encodedHeaders.put("Accept-Encoding", "gzip, deflate, br");
+        AssetResponse encoded = server.serve(AssetFixture.MEDIUM_PATH, null, encodedHeaders, AssetMetrics.CLIENT_PAGE);
+        encoded.body.close();
+        if (!"gzip".equals(encoded.headers.get("Content-Encoding"))) {
+            throw new IllegalStateException("Fixture has no gzip variant for " + AssetFixture.MEDIUM_PATH);
+        }
+        rangeHeaders.putAll(requestHeaders);
+        long start = AssetFixture.LARGE_SIZE / 2;
+        rangeHeaders.put("Range", "bytes=" + start + "-" + (start + 1024 * 1024 - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (streamer != null) streamer.shutdown();
+        if (zipFile != null) zipFile.close();
+        fixture.delete();
+    }
+
+    /**
+     * 每个线程独立的读取缓冲区和路径游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final byte[] buffer = new byte[64 * 1024]; // 与WebView读取响应体时的缓冲区大小相当
+        int next;
+    }
+
+    @Benchmark
+    public AssetIndex.Entry resolvePath(Cursor cursor) {
+        String[] paths = fixture.urlPaths;
+        int i = cursor.next;
+        cursor.next = i + 1 == paths.length ? 0 : i + 1;
+        return index.find(paths[i]);
+    }
+
+    @Benchmark
+    public String mimeLookup(Cursor cursor) {
+        String[] paths = fixture.urlPaths;
+        int i = cursor.next;
+        cursor.next = i + 1 == paths.length ? 0 : i + 1;
+        return MimeTypes.fromPath(paths[i]);
+    }
+
+    @Benchmark
+    public long notFound(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.MISSING_PATH, null, requestHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    @Benchmark
+    public long serveSmall(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.SMALL_PATH, null, requestHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    @Benchmark
+    public long serveMedium(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.MEDIUM_PATH, null, requestHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    @Benchmark
+    public long serveMediumGzip(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.MEDIUM_PATH, null, encodedHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    @Benchmark
+    public long serveLarge(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.LARGE_PATH, null, requestHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    @Benchmark
+    public long serveRange(Cursor cursor) throws IOException {
+        return drain(server.serve(AssetFixture.LARGE_PATH, null, rangeHeaders, AssetMetrics.CLIENT_PAGE), cursor);
+    }
+
+    /**
+     * 像WebView一样把响应体读完并关闭，返回读取的字节数（交给JMH防止被优化掉）
+     */
+    private static long drain(AssetResponse response, Cursor cursor) throws IOException {
+        long total = 0;
+        try (InputStream in = response.body) {
+            int n;
+            while ((n = in.read(cursor.buffer)) > 0) {
+                total += n;
+            }
+        }
+        if (response.status >= 400 && response.status != 404) {
+            throw new IllegalStateException("Unexpected status " + response.status);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.manual.bench;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * 与 AssetServerBenchmark 相同的测试项，以WebView的并发度运行
+ *
+ * WebView在少量IO线程上并发调用 shouldInterceptRequest（页面加载时通常有4~6个请求同时进行），
+ * 这里用4个线程共享同一个 AssetServer，主要观察缓存和统计在竞争下的开销
+ * 其他并发度可以在命令行指定：java -jar target/benchmarks.jar Concurrent -t 8
+ */
+@Threads(4)
+public class AssetServerConcurrentBenchmark extends AssetServerBenchmark {
+}
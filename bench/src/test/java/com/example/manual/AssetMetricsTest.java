@@ -0,0 +1,55 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * AssetMetrics 的JSON输出：百分位数不超过最大值，统计窗口的长度
+ */
+class AssetMetricsTest {
+
+    @Test
+    void percentilesAreCappedAtMax() {
+        AssetMetrics metrics = new AssetMetrics();
+        // 23518微秒落在 [16384, 32768) 桶中，桶的上界比最大值大
+        metrics.record(AssetMetrics.CLIENT_PAGE, MimeTypes.CATEGORY_SCRIPT, 100, 23_518_000);
+        String json = metrics.toJson(-1);
+
+        assertEquals(23518, field(json, "maxMicros"));
+        assertEquals(23518, field(json, "p50Micros"));
+        assertEquals(23518, field(json, "p99Micros"));
+    }
+
+    @Test
+    void percentileBelowMaxKeepsBucketBound() {
+        AssetMetrics metrics = new AssetMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(AssetMetrics.CLIENT_PAGE, MimeTypes.CATEGORY_SCRIPT, 100, 100_000); // 100微秒
+        }
+        metrics.record(AssetMetrics.CLIENT_PAGE, MimeTypes.CATEGORY_SCRIPT, 100, 5_000_000); // 5000微秒
+        String json = metrics.toJson(-1);
+
+        assertEquals(128, field(json, "p50Micros"));
+        assertEquals(5000, field(json, "maxMicros"));
+    }
+
+    @Test
+    void reportsWindowSinceReset() {
+        AssetMetrics metrics = new AssetMetrics();
+        String json = metrics.toJson(-1);
+        assertTrue(field(json, "windowMillis") >= 0);
+        assertFalse(json.contains("uptimeMillis"));
+    }
+
+    private static long field(String json, String name) {
+        Matcher m = Pattern.compile("\"" + name + "\":(\\d+)").matcher(json);
+        assertTrue(m.find(), name + " missing from " + json);
+        return Long.parseLong(m.group(1));
+    }
+}
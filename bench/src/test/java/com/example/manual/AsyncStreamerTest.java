@@ -0,0 +1,92 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AsyncStreamer 的队列统计：页面取消的任务与打开失败分开计数
+ */
+class AsyncStreamerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AssetMetrics metrics;
+    private AsyncStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new AssetMetrics();
+        streamer = new AsyncStreamer(1, 16, metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        streamer.shutdown();
+    }
+
+    @Test
+    void closedBeforeOpenIsCancelledNotFailed() throws Exception {
+        // 第一个任务占住唯一的线程，第二个任务排队时被页面关闭
+        InputStream blocker = streamer.stream(MimeTypes.CATEGORY_DOCUMENT, () -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ByteArrayInputStream(new byte[1]);
+        });
+        AtomicInteger opened = new AtomicInteger();
+        InputStream skipped = streamer.stream(MimeTypes.CATEGORY_IMAGE, () -> {
+            opened.incrementAndGet();
+            return new ByteArrayInputStream(new byte[1]);
+        });
+        skipped.close();
+        release.countDown();
+        blocker.close();
+
+        awaitCounter("cancelled", 1);
+        assertEquals(0, opened.get()); // 已经取消的任务不打开文件
+        assertEquals(0, counter("failed"));
+    }
+
+    @Test
+    void openErrorIsFailed() throws Exception {
+        InputStream broken = streamer.stream(MimeTypes.CATEGORY_SCRIPT, () -> {
+            throw new IOException("missing");
+        });
+        assertThrows(IOException.class, broken::read);
+        broken.close();
+
+        awaitCounter("failed", 1);
+        assertEquals(0, counter("cancelled"));
+    }
+
+    private long counter(String name) {
+        String json = metrics.toJson(-1);
+        Matcher m = Pattern.compile("\"queue\":\\{.*?\"" + name + "\":(\\d+)").matcher(json);
+        assertTrue(m.find(), name + " missing from " + json);
+        return Long.parseLong(m.group(1));
+    }
+
+    private void awaitCounter(String name, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (counter(name) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, counter(name));
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Range 请求头解析，以及 AssetServer 对区间请求的响应
+ */
+class ByteRangeTest {
+
+    private static final long SIZE = 100_000;
+
+    @Test
+    void closedRange() {
+        ByteRange range = ByteRange.parse("bytes=0-99", SIZE);
+        assertEquals(0, range.start);
+        assertEquals(100, range.length);
+        assertEquals(99, range.end());
+    }
+
+    @Test
+    void closedRangePastEndIsClamped() {
+        ByteRange range = ByteRange.parse("bytes=99990-200000", SIZE);
+        assertEquals(99990, range.start);
+        assertEquals(10, range.length);
+    }
+
+    @Test
+    void openEndedRange() {
+        ByteRange range = ByteRange.parse("bytes=50000-", SIZE);
+        assertEquals(50000, range.start);
+        assertEquals(50000, range.length);
+
+        range = ByteRange.parse("bytes=99999-", SIZE);
+        assertEquals(99999, range.start);
+        assertEquals(1, range.length);
+    }
+
+    @Test
+    void suffixRange() {
+        ByteRange range = ByteRange.parse("bytes=-500", SIZE);
+        assertEquals(SIZE - 500, range.start);
+        assertEquals(500, range.length);
+
+        // 后缀比文件还长时返回整个文件
+        range = ByteRange.parse("bytes=-200000", SIZE);
+        assertEquals(0, range.start);
+        assertEquals(SIZE, range.length);
+    }
+
+    @Test
+    void startAtOrPastEndIsUnsatisfiable() {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100000-", SIZE));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100001-", SIZE));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100000-100010", SIZE));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", SIZE));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=0-", 0));
+    }
+
+    @Test
+    void malformedHeadersAreIgnored() {
+        assertNull(ByteRange.parse(null, SIZE));
+        assertNull(ByteRange.parse("", SIZE));
+        assertNull(ByteRange.parse("items=0-10", SIZE));
+        assertNull(ByteRange.parse("bytes=", SIZE));
+        assertNull(ByteRange.parse("bytes=10", SIZE));
+        assertNull(ByteRange.parse("bytes=-", SIZE));
+        assertNull(ByteRange.parse("bytes=abc-10", SIZE));
+        assertNull(ByteRange.parse("bytes=10-abc", SIZE));
+        assertNull(ByteRange.parse("bytes=+10-20", SIZE));
+        assertNull(ByteRange.parse("bytes=--5", SIZE));
+        assertNull(ByteRange.parse("bytes=20-10", SIZE)); // 终点在起点之前
+        assertNull(ByteRange.parse("bytes=0-10,20-30", SIZE)); // 多区间
+    }
+
+    @Test
+    void serverAnswers416ForRangeStartingAtEnd() throws IOException {
+        File root = Files.createTempDirectory("range-test").toFile();
+        try {
+            File file = new File(root, "dist/media/clip.bin");
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), new byte[(int) SIZE]);
+            AssetIndex index = AssetIndex.of(Collections.singletonList(
+                new AssetIndex.Entry("dist", "media/clip.bin", SIZE, "application/octet-stream", "-", "0")));
+            AssetServer server = new AssetServer(new DirectoryAssetSource(root), "dist", index, null, null);
+
+            AssetResponse response = serve(server, "bytes=100000-");
+            assertEquals(416, response.status);
+            assertEquals("bytes */100000", response.headers.get("Content-Range"));
+            response.body.close();
+
+            response = serve(server, "bytes=-100");
+            assertEquals(206, response.status);
+            assertEquals(100, response.contentLength);
+            response.body.close();
+        } finally {
+            new File(root, "dist/media/clip.bin").delete();
+            new File(root, "dist/media").delete();
+            new File(root, "dist").delete();
+            root.delete();
+        }
+    }
+
+    private static AssetResponse serve(AssetServer server, String range) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Range", range);
+        return server.serve("/media/clip.bin", null, headers, AssetMetrics.CLIENT_PAGE);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ChannelDispatcher 的许可（名额）分配：多个连接共用线程池时不丢失许可
+ */
+class ChannelDispatcherTest {
+
+    /** 模拟页面一端：记录收到的帧和手中的许可 */
+    private static final class Page implements ChannelDispatcher.Sink {
+        final List<ChannelFrames.Frame> frames = new ArrayList<>();
+        int credits;
+
+        @Override
+        public synchronized void post(String batch) {
+            for (ChannelFrames.Frame frame : ChannelFrames.parse(batch)) {
+                if (frame.kind == ChannelFrames.CREDIT) credits += (int) frame.id;
+                else frames.add(frame);
+            }
+        }
+
+        synchronized int credits() {
+            return credits;
+        }
+
+        synchronized List<Character> kinds() {
+            List<Character> kinds = new ArrayList<>();
+            for (ChannelFrames.Frame frame : frames) kinds.add(frame.kind);
+            return kinds;
+        }
+
+        /** 发出一个帧，消耗一个许可 */
+        void send(ChannelDispatcher.Session session, char kind, long id, String name) {
+            synchronized (this) {
+                credits--;
+            }
+            StringBuilder batch = new StringBuilder();
+            ChannelFrames.append(batch, kind, id, name, "");
+            session.receive(batch.toString());
+        }
+    }
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ChannelDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new ChannelDispatcher(1, 1, new BlobStore(1024 * 1024));
+        dispatcher.register("block", message -> {
+            release.await(10, TimeUnit.SECONDS);
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+        dispatcher.register("echo", message -> ChannelDispatcher.Reply.text(message.text));
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void newSessionGetsOnlyFreeSlots() throws Exception {
+        Page a = new Page();
+        ChannelDispatcher.Session sessionA = dispatcher.open(a, Runnable::run);
+        assertEquals(2, a.credits());
+        a.send(sessionA, ChannelFrames.REQUEST, 1, "block");
+        a.send(sessionA, ChannelFrames.REQUEST, 2, "block");
+        sessionA.close();
+
+        // 旧文档占满了线程池，新文档一开始没有许可，不会因为发送而被拒绝
+        Page b = new Page();
+        ChannelDispatcher.Session sessionB = dispatcher.open(b, Runnable::run);
+        assertEquals(0, b.credits());
+        assertEquals(0, dispatcher.freeSlots());
+
+        // 旧文档的请求完成后，名额交给新文档
+        release.countDown();
+        awaitCredits(b, 2);
+        assertEquals(0, dispatcher.freeSlots());
+
+        b.send(sessionB, ChannelFrames.REQUEST, 1, "echo");
+        b.send(sessionB, ChannelFrames.NOTIFY, 2, "echo");
+        awaitCredits(b, 2);
+        assertEquals(List.of(ChannelFrames.REPLY), b.kinds());
+    }
+
+    @Test
+    void closeReleasesUnusedSlots() {
+        Page a = new Page();
+        dispatcher.open(a, Runnable::run).close();
+        assertEquals(2, dispatcher.freeSlots());
+
+        Page b = new Page();
+        dispatcher.open(b, Runnable::run);
+        assertEquals(2, b.credits());
+    }
+
+    @Test
+    void creditsSurviveRepeatedReconnects() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            Page page = new Page();
+            ChannelDispatcher.Session session = dispatcher.open(page, Runnable::run);
+            awaitCredits(page, 2);
+            page.send(session, ChannelFrames.REQUEST, 1, "echo");
+            page.send(session, ChannelFrames.NOTIFY, 2, "echo");
+            awaitCredits(page, 2);
+            session.close();
+        }
+        assertEquals(2, dispatcher.freeSlots());
+    }
+
+    @Test
+    void requestsBeyondCreditsAreBusyAndCreditIsReturned() throws Exception {
+        Page a = new Page();
+        ChannelDispatcher.Session session = dispatcher.open(a, Runnable::run);
+        a.send(session, ChannelFrames.REQUEST, 1, "block");
+        a.send(session, ChannelFrames.REQUEST, 2, "block");
+        a.send(session, ChannelFrames.REQUEST, 3, "block"); // 页面没有遵守许可
+        assertEquals(List.of(ChannelFrames.ERROR), a.kinds());
+
+        release.countDown();
+        awaitCredits(a, 2);
+    }
+
+    @Test
+    void unknownMethodReturnsCredit() {
+        Page a = new Page();
+        ChannelDispatcher.Session session = dispatcher.open(a, Runnable::run);
+        a.send(session, ChannelFrames.NOTIFY, 1, "missing");
+        a.send(session, ChannelFrames.REQUEST, 2, "missing");
+        assertEquals(2, a.credits());
+        assertEquals(List.of(ChannelFrames.ERROR), a.kinds());
+    }
+
+    private static void awaitCredits(Page page, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (page.credits() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, page.credits());
+        assertTrue(page.credits() >= 0);
+    }
+}
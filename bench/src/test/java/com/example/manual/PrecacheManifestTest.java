@@ -0,0 +1,93 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * /__precache.json：部分内容包的清单要合并APK中内容包没有的文件
+ */
+class PrecacheManifestTest {
+
+    private static final AssetIndex APK = AssetIndex.of(Arrays.asList(
+        entry("index.html", "aaaa"),
+        entry("js/app.js", "g", "bbbb"),
+        entry("js/app.js.gz", "-", "bbgz"),
+        entry("media/intro.mp4", "cccc")));
+
+    private static final AssetIndex PACK = AssetIndex.of(Arrays.asList(
+        entry("index.html", "dddd"),
+        entry("js/app.js", "eeee")));
+
+    @Test
+    void partialPackListsApkFallbackFiles() throws IOException {
+        AssetServer pack = new AssetServer(null, "dist", PACK, null, null);
+        pack.setFallbackIndex(APK);
+        String json = manifest(pack);
+
+        assertEquals("dddd", hashOf(json, "/index.html")); // 内容包中的条目覆盖APK
+        assertEquals("eeee", hashOf(json, "/js/app.js"));
+        assertEquals("cccc", hashOf(json, "/media/intro.mp4")); // 只在APK中的文件仍然列出
+        assertFalse(json.contains("app.js.gz")); // 预压缩版本不列出
+    }
+
+    @Test
+    void versionFollowsMergedList() throws IOException {
+        AssetServer packOnly = new AssetServer(null, "dist", PACK, null, null);
+        AssetServer merged = new AssetServer(null, "dist", PACK, null, null);
+        merged.setFallbackIndex(APK);
+        assertFalse(version(manifest(packOnly)).equals(version(manifest(merged))));
+
+        // APK中多出的文件变化时版本随之改变
+        AssetServer changed = new AssetServer(null, "dist", PACK, null, null);
+        changed.setFallbackIndex(AssetIndex.of(Collections.singletonList(entry("media/intro.mp4", "ffff"))));
+        assertFalse(version(manifest(merged)).equals(version(manifest(changed))));
+
+        AssetResponse response = merged.serve(AssetServer.PRECACHE_PATH, null, Collections.emptyMap(),
+            AssetMetrics.CLIENT_SERVICE_WORKER);
+        assertEquals("\"" + version(manifest(merged)) + "\"", response.headers.get("ETag"));
+        response.body.close();
+    }
+
+    private static AssetIndex.Entry entry(String path, String hash) {
+        return entry(path, "-", hash);
+    }
+
+    private static AssetIndex.Entry entry(String path, String flags, String hash) {
+        return new AssetIndex.Entry("dist", path, 100, MimeTypes.fromPath(path), flags, hash);
+    }
+
+    private static String manifest(AssetServer server) throws IOException {
+        AssetResponse response = server.serve(AssetServer.PRECACHE_PATH, null, Collections.emptyMap(),
+            AssetMetrics.CLIENT_SERVICE_WORKER);
+        assertEquals(200, response.status);
+        try (InputStream in = response.body) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String hashOf(String json, String url) {
+        Matcher m = Pattern.compile("\\{\"url\":\"" + Pattern.quote(url) + "\",\"size\":\\d+,\"hash\":\"(\\w+)\"")
+            .matcher(json);
+        assertTrue(m.find(), url + " missing from " + json);
+        return m.group(1);
+    }
+
+    private static String version(String json) {
+        Matcher m = Pattern.compile("\"version\":\"(\\w+)\"").matcher(json);
+        assertTrue(m.find());
+        assertNotNull(m.group(1));
+        return m.group(1);
+    }
+}
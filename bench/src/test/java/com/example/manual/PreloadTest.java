@@ -0,0 +1,87 @@
+package com.example.manual;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * AssetServer.preload：预读的版本要与 serve 对同样的 Accept-Encoding 返回的版本一致
+ */
+class PreloadTest {
+
+    private File root;
+    private AssetCache cache;
+    private AssetServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("preload-test").toFile();
+        write("app.js", 300);
+        write("app.js.gz", 100);
+        write("app.js.br", 80);
+        AssetIndex index = AssetIndex.of(Arrays.asList(
+            new AssetIndex.Entry("dist", "app.js", 300, "text/javascript", "gbp", "a1"),
+            new AssetIndex.Entry("dist", "app.js.gz", 100, "application/gzip", "-", "a2"),
+            new AssetIndex.Entry("dist", "app.js.br", 80, "application/x-brotli", "-", "a3")));
+        cache = new AssetCache(1024 * 1024, 64 * 1024);
+        server = new AssetServer(new DirectoryAssetSource(root), "dist", index, cache, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String name : new String[]{"app.js", "app.js.gz", "app.js.br"}) {
+            new File(root, "dist/" + name).delete();
+        }
+        new File(root, "dist").delete();
+        root.delete();
+    }
+
+    @Test
+    void unknownEncodingWarmsIdentityAndBestVariant() {
+        assertEquals(380, server.preload());
+        assertNotNull(cache.get("dist/app.js"));
+        assertNotNull(cache.get("dist/app.js.br"));
+        assertNull(cache.get("dist/app.js.gz"));
+    }
+
+    @Test
+    void knownEncodingWarmsTheServedVariant() {
+        assertEquals(100, server.preload("gzip, deflate"));
+        assertNotNull(cache.get("dist/app.js.gz"));
+        assertNull(cache.get("dist/app.js"));
+    }
+
+    @Test
+    void noSupportedEncodingWarmsIdentity() {
+        assertEquals(300, server.preload("identity"));
+        assertNotNull(cache.get("dist/app.js"));
+        assertNull(cache.get("dist/app.js.br"));
+    }
+
+    @Test
+    void requestWithoutAcceptEncodingIsServedFromPreloadedBytes() throws IOException {
+        server.preload();
+        new File(root, "dist/app.js").delete(); // 之后的读取只能来自缓存
+        AssetResponse response = server.serve("/app.js", null, Collections.emptyMap(), AssetMetrics.CLIENT_PAGE);
+        assertEquals(200, response.status);
+        assertNull(response.headers.get("Content-Encoding"));
+        assertEquals(300, response.body.readAllBytes().length);
+        response.body.close();
+    }
+
+    private void write(String name, int size) throws IOException {
+        File file = new File(root, "dist/" + name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), new byte[size]);
+    }
+}
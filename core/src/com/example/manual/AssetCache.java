@@ -0,0 +1,138 @@
+package com.example.manual;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 热点资源的内存字节缓存 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 以资源路径为键缓存整个文件的字节，页面和Service Worker共用一个 AssetResourceLoader，
+ * 也就共用这一份缓存；命中时由调用方包装成 ByteArrayInputStream，不再打开APK
+ *
+ * 并发设计：
+ * WebView 会在多个IO线程上同时调用拦截方法
+ * - 命中路径只有一次 ConcurrentHashMap.get 和一次 volatile 写（记录访问时间），不加锁
+ * - 写入和淘汰在 evictLock 下进行，只有未命中才会走到这里
+ * - 同一个文件被两个线程同时未命中时可能读两次，后写入的覆盖先写入的，结果一致
+ *
+ * 淘汰策略：总字节数超过上限时按最近访问时间淘汰（LRU），超过单文件上限的文件不进入缓存
+ */
+public final class AssetCache {
+
+    private static final class Node {
+        final byte[] data;
+        volatile long lastAccess; // System.nanoTime()，多个线程写入时以最后一次为准，足够做LRU排序
+
+        Node(byte[] data) {
+            this.data = data;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+
+    private final long maxBytes; // 缓存总字节数上限
+    private final int maxEntryBytes; // 单个文件的字节数上限
+    private final ConcurrentHashMap<String, Node> map = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Object evictLock = new Object();
+
+    /**
+     * @param maxBytes 缓存总字节数上限
+     * @param maxEntryBytes 单个文件超过此大小时不缓存（通常是图片、音视频等大文件）
+     */
+    public AssetCache(long maxBytes, int maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /** @return 单个文件的字节数上限，调用方据此判断是否值得整体读入内存 */
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /** @return 当前缓存的总字节数 */
+    public long totalBytes() {
+        return totalBytes.get();
+    }
+
+    /**
+     * 查找缓存
+     *
+     * @param key 资源路径
+     * @return 缓存的字节（调用方不得修改），未命中返回null
+     */
+    public byte[] get(String key) {
+        Node node = map.get(key);
+        if (node == null) return null;
+        node.lastAccess = System.nanoTime();
+        return node.data;
+    }
+
+    /**
+     * 写入缓存，超过单文件上限时忽略；写入后超过总上限时淘汰最久未访问的文件
+     *
+     * @param key 资源路径
+     * @param data 文件的完整字节，写入后不得再修改
+     */
+    public void put(String key, byte[] data) {
+        if (data.length > maxEntryBytes || data.length > maxBytes) return;
+
+        synchronized (evictLock) {
+            Node old = map.put(key, new Node(data));
+            totalBytes.addAndGet(data.length - (old != null ? old.data.length : 0));
+            if (totalBytes.get() > maxBytes) {
+                evictTo(maxBytes);
+            }
+        }
+    }
+
+    /**
+     * 淘汰最久未访问的文件，直到总字节数不超过指定值
+     *
+     * @param targetBytes 目标字节数，传0等同于清空
+     */
+    public void trimTo(long targetBytes) {
+        synchronized (evictLock) {
+            evictTo(targetBytes);
+        }
+    }
+
+    /** 清空缓存 */
+    public void clear() {
+        trimTo(0);
+    }
+
+    // 必须持有 evictLock
+    private void evictTo(long targetBytes) {
+        if (totalBytes.get() <= targetBytes) return;
+
+        // 缓存中通常只有几百个文件，直接按访问时间排序即可
+        // 访问时间在排序期间仍可能被其他线程修改，先取一份快照再排序
+        List<Candidate> candidates = new ArrayList<>(map.size());
+        for (Map.Entry<String, Node> e : map.entrySet()) {
+            candidates.add(new Candidate(e.getKey(), e.getValue()));
+        }
+        candidates.sort((a, b) -> Long.compare(a.lastAccess, b.lastAccess));
+        for (Candidate c : candidates) {
+            if (totalBytes.get() <= targetBytes) break;
+            if (map.remove(c.key, c.node)) {
+                totalBytes.addAndGet(-c.node.data.length);
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final String key;
+        final Node node;
+        final long lastAccess;
+
+        Candidate(String key, Node node) {
+            this.key = key;
+            this.node = node;
+            this.lastAccess = node.lastAccess;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.manual;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 资源索引 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 打包时由 tools/AssetPacker 扫描 assets/dist 生成索引文件（assets/dist.index），
+ * 记录每个文件的路径、大小、MIME类型、内容哈希以及在APK中的存储方式；运行时 AssetResourceLoader 在启动时加载一次，
+ * 之后所有请求都只在内存中查表，不再依赖 AssetManager 抛出异常来判断文件是否存在
+ *
+ * 文件格式（UTF-8文本，每行一条，字段以制表符分隔）：
+ *   # asset-index 4
+ *   路径(相对dist，不带前导斜杠) \t 字节数 \t MIME类型 \t 标志 \t 内容哈希 \t 依赖
+ *
+ * 内容哈希是文件SHA-256的前20个十六进制字符，直接用作 ETag
+ *
+ * 依赖字段是这个文件直接引用的本地文件（相对dist的路径，以逗号分隔），"-"表示没有：
+ * HTML中的 <script src>、<link href>（包括 preload/modulepreload）等，JS中的静态 import 和动态 import()，
+ * CSS中的 @import 和 url()；页面请求某个文件时，AssetServer 据此在后台预取它的依赖（见 Prefetcher）
+ * 内容包（ContentPack）不保存依赖关系：内容包本身就在内存映射中，不需要预取
+ *
+ * 标志字段由单个字符组成，"-"表示没有任何标志：
+ *   s  文件在APK中以不压缩（STORED）方式存储，可以用 AssetManager.openFd 按偏移读取
+ *   g  打包时生成了gzip预压缩版本（同目录下的"路径.gz"，它本身也是索引中的一条）
+ *   b  打包时生成了Brotli预压缩版本（同目录下的"路径.br"）
+ *   i  文件名中带有内容哈希（如 app-3f2a1b9c.js），内容永远不会变化，可以长期缓存
+ *   p  首屏关键资源（入口HTML及其直接引用的脚本、样式等），启动时在后台预先读入内存缓存
+ */
+public final class AssetIndex {
+
+    /** 索引文件的首行标识，版本号变化时旧索引会被拒绝加载 */
+    public static final String HEADER = "# asset-index 4";
+
+    /** 文件名带哈希的资源：内容不可变，允许长期缓存 */
+    public static final String CACHE_IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /** 其他资源（包括index.html）：每次使用前都重新验证，保证应用更新后不会用到旧内容 */
+    public static final String CACHE_REVALIDATE = "no-cache";
+
+    /** 默认文档，请求"/"或空路径时映射到它 */
+    public static final String DEFAULT_DOCUMENT = "index.html";
+
+    private static final Entry[] NO_DEPENDENCIES = new Entry[0];
+
+    /**
+     * 索引中的单个文件条目
+     * 所有字段在加载时一次性算好，请求路径上不再做任何字符串拼接
+     */
+    public static final class Entry {
+        public final String path; // 相对dist的路径，如"js/app.js"
+        public final String assetPath; // AssetManager使用的完整路径，如"dist/js/app.js"
+        public final long size; // 文件字节数
+        public final String mimeType; // MIME类型
+        public final String charset; // 字符集，只有文本类型才有，二进制内容为null
+        public final int category; // 资源类别，MimeTypes.CATEGORY_*
+        public final String flags; // 索引中的标志字段，见类注释
+        public final String hash; // 内容哈希
+        public final String deps; // 索引中的依赖字段，见类注释
+        public final boolean stored; // 在APK中是否以不压缩方式存储
+        public final boolean preload; // 是否为启动时预读的首屏关键资源
+        public final String etag; // 带引号的ETag，如"\"3f2a...\""
+        public final String cacheControl; // Cache-Control 响应头
+
+        // 预压缩版本，加载索引时根据"g"/"b"标志关联，没有则为null
+        Entry gzip;
+        Entry brotli;
+
+        // 直接依赖的条目，加载索引时根据依赖字段关联，索引中不存在的路径被忽略
+        Entry[] dependencies = NO_DEPENDENCIES;
+
+        public Entry(String assetBase, String path, long size, String mimeType, String flags, String hash) {
+            this(assetBase, path, size, mimeType, flags, hash, "-");
+        }
+
+        public Entry(String assetBase, String path, long size, String mimeType, String flags, String hash,
+                String deps) {
+            this.path = path;
+            this.assetPath = assetBase + "/" + path;
+            this.size = size;
+            this.mimeType = mimeType;
+            this.charset = MimeTypes.charsetFor(mimeType);
+            this.category = MimeTypes.categoryOf(mimeType);
+            this.flags = flags;
+            this.hash = hash;
+            this.deps = deps;
+            this.stored = flags.indexOf('s') >= 0;
+            this.preload = flags.indexOf('p') >= 0;
+            this.etag = "\"" + hash + "\"";
+            this.cacheControl = flags.indexOf('i') >= 0 ? CACHE_IMMUTABLE : CACHE_REVALIDATE;
+        }
+
+        /** @return gzip预压缩版本，没有则返回null */
+        public Entry gzip() {
+            return gzip;
+        }
+
+        /** @return Brotli预压缩版本，没有则返回null */
+        public Entry brotli() {
+            return brotli;
+        }
+
+        /** @return 直接依赖的条目，没有依赖时为空数组（调用方不得修改） */
+        public Entry[] dependencies() {
+            return dependencies;
+        }
+    }
+
+    // 以URL路径（带前导斜杠，如"/js/app.js"）为键，可直接用 Uri.getPath() 的结果查表
+    private final Map<String, Entry> entries;
+
+    private AssetIndex(Map<String, Entry> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 按URL路径查找条目
+     *
+     * @param urlPath Uri.getPath() 的结果，null或空串视为"/"
+     * @return 对应的条目，不存在时返回null（不会抛出异常）
+     */
+    public Entry find(String urlPath) {
+        if (urlPath == null || urlPath.isEmpty()) {
+            urlPath = "/";
+        }
+        return entries.get(urlPath);
+    }
+
+    /** @return 索引中的文件数量 */
+    public int size() {
+        return entries.size() - (entries.containsKey("/") ? 1 : 0);
+    }
+
+    /**
+     * @return 索引中的全部条目（不含"/"别名），顺序不固定
+     */
+    public List<Entry> entries() {
+        List<Entry> list = new ArrayList<>(size());
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (!e.getKey().equals("/")) list.add(e.getValue());
+        }
+        return list;
+    }
+
+    /**
+     * 由条目直接构造索引（内容包加载时使用）
+     *
+     * @param list 条目，路径不能重复
+     * @return 索引，预压缩版本已关联到原始条目上
+     */
+    public static AssetIndex of(Collection<Entry> list) {
+        Map<String, Entry> map = new HashMap<>();
+        for (Entry entry : list) {
+            map.put("/" + entry.path, entry);
+            if (entry.path.equals(DEFAULT_DOCUMENT)) {
+                map.put("/", entry); // 根路径直接指向默认文档
+            }
+        }
+
+        // 预压缩版本在索引中是独立的条目，这里一次性关联到原始条目上，请求时不再拼接".gz"/".br"
+        for (Entry entry : list) {
+            if (entry.flags.indexOf('g') >= 0) {
+                entry.gzip = map.get("/" + entry.path + ".gz");
+            }
+            if (entry.flags.indexOf('b') >= 0) {
+                entry.brotli = map.get("/" + entry.path + ".br");
+            }
+            if (!entry.deps.equals("-")) {
+                entry.dependencies = resolveDependencies(map, entry.deps);
+            }
+        }
+        return new AssetIndex(map);
+    }
+
+    /**
+     * 从输入流读取索引
+     *
+     * @param in 索引文件内容，读取完成后由调用方关闭
+     * @param assetBase assets目录下的基础文件夹名称（如"dist"）
+     * @return 加载好的索引
+     * @throws IOException 读取失败或文件格式不匹配
+     */
+    public static AssetIndex read(InputStream in, String assetBase) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (!HEADER.equals(line)) {
+            throw new IOException("Unsupported asset index header: " + line);
+        }
+
+        List<Entry> list = new ArrayList<>();
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') continue;
+
+            String[] f = split(line, 6);
+            list.add(new Entry(assetBase, f[0], Long.parseLong(f[1]), f[2], f[3], f[4], f[5]));
+        }
+        return of(list);
+    }
+
+    /**
+     * 将条目写成索引文件（打包工具使用）
+     *
+     * @param out 输出流，写入完成后由调用方关闭
+     * @param list 要写入的条目
+     */
+    public static void write(OutputStream out, Collection<Entry> list) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.write('\n');
+        for (Entry e : list) {
+            writer.write(e.path);
+            writer.write('\t');
+            writer.write(Long.toString(e.size));
+            writer.write('\t');
+            writer.write(e.mimeType);
+            writer.write('\t');
+            writer.write(e.flags);
+            writer.write('\t');
+            writer.write(e.hash);
+            writer.write('\t');
+            writer.write(e.deps);
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * 把逗号分隔的依赖路径换算成条目，索引中不存在的路径被忽略
+     */
+    private static Entry[] resolveDependencies(Map<String, Entry> map, String deps) {
+        List<Entry> list = new ArrayList<>();
+        int from = 0;
+        while (from <= deps.length()) {
+            int comma = deps.indexOf(',', from);
+            if (comma < 0) comma = deps.length();
+            Entry dep = comma > from ? map.get("/" + deps.substring(from, comma)) : null;
+            if (dep != null && !list.contains(dep)) list.add(dep);
+            from = comma + 1;
+        }
+        return list.isEmpty() ? NO_DEPENDENCIES : list.toArray(new Entry[0]);
+    }
+
+    /**
+     * 按制表符切分一行，字段数必须正好是count
+     */
+    private static String[] split(String line, int count) throws IOException {
+        String[] fields = new String[count];
+        int from = 0;
+        for (int i = 0; i < count - 1; i++) {
+            int tab = line.indexOf('\t', from);
+            if (tab < 0) {
+                throw new IOException("Malformed asset index line: " + line);
+            }
+            fields[i] = line.substring(from, tab);
+            from = tab + 1;
+        }
+        if (line.indexOf('\t', from) >= 0) {
+            throw new IOException("Malformed asset index line: " + line);
+        }
+        fields[count - 1] = line.substring(from);
+        return fields;
+    }
+}
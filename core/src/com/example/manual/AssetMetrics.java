@@ -0,0 +1,265 @@
+package com.example.manual;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * 资源拦截的请求统计 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 按 客户端（页面 / Service Worker）× 资源类别 统计请求数、响应字节数和处理耗时，
+ * 另外统计缓存命中、404的次数，以及每个WebView IO线程处理的请求数
+ * 结果由 AssetResourceLoader 在保留地址 /__metrics 以JSON形式输出
+ *
+ * 记录路径不分配对象：所有计数器都是预先分配好的 AtomicLongArray，
+ * 线程统计对象只在每个线程第一次记录时创建一次
+ *
+ * 耗时是拦截方法构造出响应所用的时间（不包括WebView随后读取数据流的时间），
+ * 按微秒取以2为底的对数分桶：第i个桶统计耗时小于 2^i 微秒（且不小于 2^(i-1)）的请求
+ *
+ * 其他功能的统计（异步响应体队列 QueueMetrics、依赖预取 PrefetchMetrics、渲染进程恢复 RecoveryMetrics、
+ * 全屏过渡 FullscreenMetrics、冷启动时间点 StartupTrace）由各功能通过 section 登记为单独的字段（见 MetricsSection），
+ * 按登记顺序输出在请求统计之后
+ */
+public final class AssetMetrics {
+
+    public static final int CLIENT_PAGE = 0;
+    public static final int CLIENT_SERVICE_WORKER = 1;
+    private static final String[] CLIENT_NAMES = {"page", "serviceWorker"};
+    private static final int CLIENT_COUNT = 2;
+
+    /** 延迟直方图的桶数，最后一个桶收纳所有超过 2^30 微秒（约18分钟）的请求 */
+    public static final int BUCKETS = 32;
+
+    private static final int CELLS = CLIENT_COUNT * MimeTypes.CATEGORY_COUNT;
+
+    private final AtomicLongArray requests = new AtomicLongArray(CELLS);
+    private final AtomicLongArray bytes = new AtomicLongArray(CELLS);
+    private final AtomicLongArray totalMicros = new AtomicLongArray(CELLS);
+    private final AtomicLongArray maxMicros = new AtomicLongArray(CELLS);
+    private final AtomicLongArray histogram = new AtomicLongArray(CELLS * BUCKETS);
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+
+    private volatile long sinceMillis = System.currentTimeMillis(); // 统计开始（或上次重置）的时间
+
+    // 各功能登记的统计字段，按登记顺序输出（访问需要同步）
+    private final Map<String, MetricsSection> sections = new LinkedHashMap<>();
+
+    /** 单个线程的请求计数 */
+    private static final class ThreadStats {
+        final String name;
+        final AtomicLong requests = new AtomicLong();
+
+        ThreadStats(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<ThreadStats> threads = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<ThreadStats> currentThread = new ThreadLocal<ThreadStats>() {
+        @Override
+        protected ThreadStats initialValue() {
+            ThreadStats stats = new ThreadStats(Thread.currentThread().getName());
+            threads.add(stats);
+            return stats;
+        }
+    };
+
+    /**
+     * 记录一次请求
+     *
+     * @param client CLIENT_PAGE 或 CLIENT_SERVICE_WORKER
+     * @param category 资源类别（MimeTypes.CATEGORY_*）
+     * @param responseBytes 响应体字节数（Content-Length），未知时传0
+     * @param nanos 构造响应所用的纳秒数
+     */
+    public void record(int client, int category, long responseBytes, long nanos) {
+        int cell = client * MimeTypes.CATEGORY_COUNT + category;
+        long micros = nanos / 1000;
+        requests.incrementAndGet(cell);
+        bytes.addAndGet(cell, responseBytes);
+        totalMicros.addAndGet(cell, micros);
+        histogram.incrementAndGet(cell * BUCKETS + bucketOf(micros));
+        updateMax(maxMicros, cell, micros);
+        currentThread.get().requests.incrementAndGet();
+    }
+
+    /**
+     * 取得某个功能的统计字段，第一次调用时创建并登记
+     * 同一名称多次调用返回同一个对象，因此随Activity重建的对象也可以直接调用
+     *
+     * @param name 输出时的字段名，如"queue"
+     * @param factory 第一次调用时创建统计对象
+     * @return 登记的统计对象
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends MetricsSection> T section(String name, Supplier<T> factory) {
+        synchronized (sections) {
+            MetricsSection section = sections.get(name);
+            if (section == null) {
+                section = factory.get();
+                sections.put(name, section);
+            }
+            return (T) section;
+        }
+    }
+
+    static void updateMax(AtomicLongArray array, int i, long value) {
+        long max;
+        while (value > (max = array.get(i)) && !array.compareAndSet(i, max, value)) {
+            // 其他线程同时更新了最大值，重新比较
+        }
+    }
+
+    public void cacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    public void cacheMiss() {
+        cacheMisses.incrementAndGet();
+    }
+
+    public void notFound() {
+        notFound.incrementAndGet();
+    }
+
+    /** 清零所有计数，用于对比冷启动与热启动等不同阶段 */
+    public void reset() {
+        for (int i = 0; i < CELLS; i++) {
+            requests.set(i, 0);
+            bytes.set(i, 0);
+            totalMicros.set(i, 0);
+            maxMicros.set(i, 0);
+        }
+        for (int i = 0; i < CELLS * BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        notFound.set(0);
+        for (ThreadStats t : threads) {
+            t.requests.set(0);
+        }
+        synchronized (sections) {
+            for (MetricsSection section : sections.values()) {
+                section.reset();
+            }
+        }
+        sinceMillis = System.currentTimeMillis();
+    }
+
+    static int bucketOf(long micros) {
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /**
+     * 输出JSON格式的统计结果
+     *
+     * @param cacheBytes 资源缓存当前占用的字节数，没有缓存时传-1
+     * @return JSON文本
+     */
+    public String toJson(long cacheBytes) {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\"sinceMillis\":").append(sinceMillis);
+        sb.append(",\"windowMillis\":").append(System.currentTimeMillis() - sinceMillis); // 统计窗口的长度
+        sb.append(",\"notFound\":").append(notFound.get());
+        sb.append(",\"cache\":{\"hits\":").append(cacheHits.get())
+            .append(",\"misses\":").append(cacheMisses.get())
+            .append(",\"bytes\":").append(cacheBytes).append('}');
+
+        sb.append(",\"clients\":{");
+        for (int client = 0; client < CLIENT_COUNT; client++) {
+            if (client > 0) sb.append(',');
+            sb.append('"').append(CLIENT_NAMES[client]).append("\":{");
+            boolean first = true;
+            for (int category = 0; category < MimeTypes.CATEGORY_COUNT; category++) {
+                int cell = client * MimeTypes.CATEGORY_COUNT + category;
+                long count = requests.get(cell);
+                if (count == 0) continue;
+                if (!first) sb.append(',');
+                first = false;
+                appendCell(sb, MimeTypes.CATEGORY_NAMES[category], cell, count);
+            }
+            sb.append('}');
+        }
+        sb.append('}');
+
+        sb.append(",\"threads\":[");
+        boolean first = true;
+        for (ThreadStats t : threads) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("{\"name\":");
+            Json.appendString(sb, t.name);
+            sb.append(",\"requests\":").append(t.requests.get()).append('}');
+        }
+        sb.append(']');
+        synchronized (sections) {
+            for (Map.Entry<String, MetricsSection> entry : sections.entrySet()) {
+                sb.append(",\"").append(entry.getKey()).append("\":");
+                entry.getValue().appendJson(sb);
+            }
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private void appendCell(StringBuilder sb, String name, int cell, long count) {
+        sb.append('"').append(name).append("\":{");
+        sb.append("\"requests\":").append(count);
+        sb.append(",\"bytes\":").append(bytes.get(cell));
+        appendLatency(sb, histogram, cell, totalMicros.get(cell) / count, maxMicros.get(cell));
+        sb.append('}');
+    }
+
+    /**
+     * 输出平均值、百分位数、最大值和直方图字段（以逗号开头，不含外层括号）
+     * 百分位数不超过实际观察到的最大值，避免桶的上界大于 maxMicros
+     */
+    static void appendLatency(StringBuilder sb, AtomicLongArray histogram, int cell, long avg, long max) {
+        long[] buckets = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = histogram.get(cell * BUCKETS + i);
+        }
+        sb.append(",\"avgMicros\":").append(avg);
+        sb.append(",\"p50Micros\":").append(percentile(buckets, 0.50, max));
+        sb.append(",\"p95Micros\":").append(percentile(buckets, 0.95, max));
+        sb.append(",\"p99Micros\":").append(percentile(buckets, 0.99, max));
+        sb.append(",\"maxMicros\":").append(max);
+        // 去掉末尾的空桶，第i个元素表示耗时小于 2^i 微秒的请求数
+        int last = BUCKETS - 1;
+        while (last > 0 && buckets[last] == 0) last--;
+        sb.append(",\"histogram\":[");
+        for (int i = 0; i <= last; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(buckets[i]);
+        }
+        sb.append(']');
+    }
+
+    /**
+     * 根据直方图估算百分位数，返回所在桶的上界（微秒），但不超过最大值
+     */
+    private static long percentile(long[] buckets, double p, long max) {
+        long total = 0;
+        for (long b : buckets) total += b;
+        long target = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target && buckets[i] > 0) {
+                return Math.min(1L << i, max);
+            }
+        }
+        return Math.min(1L << (buckets.length - 1), max);
+    }
+}
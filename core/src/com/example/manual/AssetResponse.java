@@ -0,0 +1,29 @@
+package com.example.manual;
+
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * AssetServer 生成的响应 (纯Java，无Android依赖)
+ * 字段与 WebResourceResponse 的构造参数一一对应，由 AssetResourceLoader 转换后交给WebView
+ */
+public final class AssetResponse {
+    public final int status; // HTTP状态码
+    public final String reason; // 状态描述，如"OK"
+    public final String mimeType; // MIME类型
+    public final String charset; // 字符集，二进制内容为null
+    public final Map<String, String> headers; // 响应头，可以为null
+    public final InputStream body; // 响应体，由WebView读取并关闭
+    public final long contentLength; // 响应体字节数，未知时为-1
+
+    public AssetResponse(int status, String reason, String mimeType, String charset,
+            Map<String, String> headers, InputStream body, long contentLength) {
+        this.status = status;
+        this.reason = reason;
+        this.mimeType = mimeType;
+        this.charset = charset;
+        this.headers = headers;
+        this.body = body;
+        this.contentLength = contentLength;
+    }
+}
@@ -0,0 +1,557 @@
+package com.example.manual;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 虚拟域名下资源请求的处理核心 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * AssetResourceLoader 把WebView的请求拆成 路径 + 查询串 + 请求头 交给这里，
+ * 这里负责查索引、选择预压缩版本、处理Range、读写缓存和记录统计，生成 AssetResponse
+ * 文件内容只通过 AssetSource 读取，因此整个处理路径可以在桌面JVM上运行基准测试（见bench模块）
+ *
+ * 处理流程：
+ * 1. 保留地址直接生成内容：/__metrics 输出统计数据，/__precache.json 输出预缓存清单（见 precacheResponse）
+ * 2. 在资源索引中查找URL路径，未命中返回预先分配好的404页面，不访问 AssetSource，也不产生异常
+ * 3. 没有Range头时按 Accept-Encoding 选择 .br/.gz 预压缩版本
+ * 4. 有Range头时返回 206（越界返回 416），否则返回完整内容
+ * 5. 小文件整体读入 AssetCache，之后直接返回缓存字节的视图
+ * 6. 设置了 AsyncStreamer 时，需要访问 AssetSource 的响应体（缓存未命中、大文件、Range）
+ *    改为在它的线程池中按优先级打开，拦截线程只负责查索引和生成响应头；缓存命中仍然直接返回
+ * 7. 设置了 Prefetcher 时，返回一个带有依赖的文件（如index.html）之前，先把它的直接依赖交给后台预取，
+ *    选择与本次请求相同的预压缩版本；页面请求到达时文件还在预取中则等待预取的结果，不重复读取
+ *
+ * 没有索引时（旧的打包流程）退回到直接尝试打开文件的旧逻辑
+ */
+public final class AssetServer {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /** 统计数据的保留地址，dist中不应有同名文件 */
+    public static final String METRICS_PATH = "/__metrics";
+
+    /** 预缓存清单的保留地址，供 Service Worker 按内容哈希增量更新缓存 */
+    public static final String PRECACHE_PATH = "/__precache.json";
+
+    // 404页面内容只生成一次，所有未命中的请求共用同一份字节
+    private static final byte[] NOT_FOUND_BODY =
+        "<html><body><h2 style='color:red;'>404 Not Found</h2></body></html>".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final AssetSource source; // 文件内容来源
+    private final String assetBase; // 本地资源基础目录（如"dist"）
+    private final AssetIndex index; // 资源索引，为null时走旧逻辑
+    private final AssetCache cache; // 热点资源缓存，为null时不缓存
+    private final AssetMetrics metrics; // 请求统计，为null时不统计
+    private final AsyncStreamer streamer; // 异步响应体，为null时在调用线程上打开
+    private final Prefetcher prefetcher; // 依赖预取，为null时不预取
+    private volatile byte[] precache; // 预缓存清单，第一次请求时由索引生成，之后复用
+    private volatile String precacheVersion; // 预缓存清单的版本（同时用作ETag）
+    private volatile AssetIndex fallbackIndex; // 本服务器缺少的文件由这个索引对应的来源提供，可以为null
+
+    /**
+     * @param source 文件内容来源
+     * @param assetBase assets目录下的基础文件夹名称（如"dist"）
+     * @param index 资源索引，传null时每次请求都直接尝试打开文件
+     * @param cache 热点资源缓存，传null表示不缓存
+     * @param metrics 请求统计，传null表示不统计（/__metrics 也不可用）
+     */
+    public AssetServer(AssetSource source, String assetBase, AssetIndex index, AssetCache cache,
+            AssetMetrics metrics) {
+        this(source, assetBase, index, cache, metrics, null);
+    }
+
+    /**
+     * @param streamer 异步响应体，传null表示所有响应体都在调用线程上打开
+     */
+    public AssetServer(AssetSource source, String assetBase, AssetIndex index, AssetCache cache,
+            AssetMetrics metrics, AsyncStreamer streamer) {
+        this(source, assetBase, index, cache, metrics, streamer, null);
+    }
+
+    /**
+     * @param prefetcher 依赖预取，传null表示不预取；需要同时设置 cache，预取结果写入的是同一个缓存
+     */
+    public AssetServer(AssetSource source, String assetBase, AssetIndex index, AssetCache cache,
+            AssetMetrics metrics, AsyncStreamer streamer, Prefetcher prefetcher) {
+        this.source = source;
+        this.assetBase = assetBase;
+        this.index = index;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.streamer = streamer;
+        this.prefetcher = cache != null ? prefetcher : null;
+    }
+
+    /**
+     * 从资源来源读取打包时生成的索引（<assetBase>.index）
+     *
+     * @throws IOException 索引不存在或格式不对
+     */
+    public static AssetIndex readIndex(AssetSource source, String assetBase) throws IOException {
+        try (InputStream in = source.open(assetBase + ".index")) {
+            return AssetIndex.read(in, assetBase);
+        }
+    }
+
+    /** @return 资源索引，可能为null */
+    public AssetIndex index() {
+        return index;
+    }
+
+    /**
+     * 设置后备索引：内容包可以只包含部分文件，缺少的文件仍然由APK提供（见 AssetResourceLoader），
+     * 预缓存清单要按合并后的视图生成（同一路径以本服务器的条目为准），否则这些文件会从 Service Worker 的缓存中消失
+     * 必须在开始处理请求之前调用
+     *
+     * @param fallback 后备来源的索引，传null表示没有
+     */
+    public void setFallbackIndex(AssetIndex fallback) {
+        this.fallbackIndex = fallback;
+    }
+
+    /** @return 热点资源缓存，可能为null */
+    public AssetCache cache() {
+        return cache;
+    }
+
+    /**
+     * 把索引中标记为首屏关键资源（"p"标志）的文件预先读入缓存，在后台线程中调用
+     * 启动时还不知道页面请求会带什么 Accept-Encoding，见 preload(String)
+     *
+     * @return 本次读入缓存的字节数
+     */
+    public long preload() {
+        return preload(null);
+    }
+
+    /**
+     * 把首屏关键资源读入缓存，读入的版本与 serve 对同样的 Accept-Encoding 选择的版本相同（见 encodedVariant）：
+     * 请求不带 Accept-Encoding 时 serve 返回原始文件，预压缩版本只在请求声明支持时才会用到
+     *
+     * @param acceptEncoding 页面请求的 Accept-Encoding；传null表示未知，
+     *                       此时原始文件和最优的预压缩版本（br优先）都读入
+     * @return 本次读入缓存的字节数
+     */
+    public long preload(String acceptEncoding) {
+        if (index == null || cache == null) return 0;
+        long loaded = 0;
+        for (AssetIndex.Entry entry : index.entries()) {
+            if (!entry.preload) continue;
+            if (acceptEncoding != null) {
+                AssetIndex.Entry variant = encodedVariant(entry, acceptEncoding);
+                loaded += warm(variant != null ? variant : entry);
+            } else {
+                loaded += warm(entry);
+                AssetIndex.Entry variant = entry.brotli() != null ? entry.brotli() : entry.gzip();
+                if (variant != null) loaded += warm(variant);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * 把一个文件读入缓存，已经缓存或超过单文件上限时跳过
+     *
+     * @return 读入的字节数
+     */
+    private long warm(AssetIndex.Entry entry) {
+        if (entry.size > cache.maxEntryBytes() || cache.get(entry.assetPath) != null) return 0;
+        try {
+            cache.put(entry.assetPath, readFully(entry));
+            return entry.size;
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Preload failed: " + entry.assetPath, e);
+            return 0;
+        }
+    }
+
+    /**
+     * 处理一个请求
+     *
+     * @param path URL路径（Uri.getPath()，已解码，可以为null）
+     * @param query URL查询串（可以为null）
+     * @param requestHeaders 请求头，可以为null
+     * @param client 请求来源，AssetMetrics.CLIENT_PAGE 或 AssetMetrics.CLIENT_SERVICE_WORKER
+     * @return 响应，不会返回null
+     */
+    public AssetResponse serve(String path, String query, Map<String, String> requestHeaders, int client) {
+        if (metrics == null) {
+            return dispatch(path, query, requestHeaders);
+        }
+        long start = System.nanoTime();
+        AssetResponse response = dispatch(path, query, requestHeaders);
+        long nanos = System.nanoTime() - start;
+        metrics.record(client, MimeTypes.categoryOf(response.mimeType), Math.max(0, response.contentLength), nanos);
+        return response;
+    }
+
+    private AssetResponse dispatch(String path, String query, Map<String, String> requestHeaders) {
+        if (metrics != null && METRICS_PATH.equals(path)) {
+            return metricsResponse(query);
+        }
+        if (index == null) {
+            return openWithoutIndex(path);
+        }
+        if (PRECACHE_PATH.equals(path)) {
+            return precacheResponse();
+        }
+
+        // 直接用URL路径查表，"/"和空路径在索引中已映射到index.html
+        AssetIndex.Entry entry = index.find(path);
+        if (entry == null) {
+            return notFound();
+        }
+        try {
+            String rangeHeader = header(requestHeaders, "Range");
+            if (rangeHeader == null) {
+                String acceptEncoding = header(requestHeaders, "Accept-Encoding");
+                if (prefetcher != null && entry.dependencies().length > 0) {
+                    // 在读取本文件之前提交，依赖的读取与本文件的读取同时进行
+                    prefetchDependencies(entry, acceptEncoding);
+                }
+                // Range总是针对原始内容，只有完整请求才考虑预压缩版本
+                AssetResponse encoded = openEncoded(entry, acceptEncoding);
+                if (encoded != null) return encoded;
+            }
+
+            ByteRange range = ByteRange.parse(rangeHeader, entry.size);
+            if (range == null) {
+                InputStream stream = openBody(entry, entry.category);
+                Map<String, String> headers = cacheHeaders(entry, entry.etag);
+                headers.put("Accept-Ranges", "bytes");
+                headers.put("Content-Length", Long.toString(entry.size));
+                return new AssetResponse(200, "OK", entry.mimeType, entry.charset, headers, stream, entry.size);
+            }
+            if (range == ByteRange.UNSATISFIABLE) {
+                Map<String, String> headers = new HashMap<>();
+                headers.put("Content-Range", "bytes */" + entry.size);
+                return new AssetResponse(416, "Range Not Satisfiable", entry.mimeType, entry.charset, headers,
+                    new ByteArrayInputStream(EMPTY), 0);
+            }
+
+            Map<String, String> headers = cacheHeaders(entry, entry.etag);
+            headers.put("Accept-Ranges", "bytes");
+            headers.put("Content-Length", Long.toString(range.length));
+            headers.put("Content-Range", "bytes " + range.start + "-" + range.end() + "/" + entry.size);
+            return new AssetResponse(206, "Partial Content", entry.mimeType, entry.charset, headers,
+                openRange(entry, range), range.length);
+        } catch (IOException e) {
+            // 索引与资源内容不一致（通常是忘了重新生成索引）；异步打开时这类错误只能在线程池中发现
+            LOG.log(Level.SEVERE, "Indexed asset missing: " + entry.assetPath, e);
+            return notFound();
+        }
+    }
+
+    /**
+     * 创建带有缓存相关响应头的头部表，调用方可以继续添加其他响应头
+     */
+    private static Map<String, String> cacheHeaders(AssetIndex.Entry entry, String etag) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("ETag", etag);
+        headers.put("Cache-Control", entry.cacheControl);
+        return headers;
+    }
+
+    /**
+     * 按 Accept-Encoding 选择预压缩版本（Brotli优先于gzip）
+     *
+     * @return 预压缩版本的响应；没有合适的版本时返回null，由调用方返回原始内容
+     */
+    private AssetResponse openEncoded(AssetIndex.Entry entry, String acceptEncoding) throws IOException {
+        AssetIndex.Entry variant = encodedVariant(entry, acceptEncoding);
+        if (variant == null) return null;
+        String encoding = variant == entry.brotli() ? "br" : "gzip";
+
+        // 预压缩文件本身的类型是gzip/brotli，优先级按原始资源的类别计算
+        InputStream stream = openBody(variant, entry.category);
+        // 压缩后的字节与原文件不同，使用预压缩文件自己的哈希作为ETag
+        Map<String, String> headers = cacheHeaders(entry, variant.etag);
+        headers.put("Content-Encoding", encoding);
+        headers.put("Content-Length", Long.toString(variant.size));
+        headers.put("Vary", "Accept-Encoding");
+        return new AssetResponse(200, "OK", entry.mimeType, entry.charset, headers, stream, variant.size);
+    }
+
+    /**
+     * 按 Accept-Encoding 选择预压缩版本（Brotli优先于gzip）
+     *
+     * @return 预压缩版本的条目，没有合适的版本时返回null
+     */
+    private static AssetIndex.Entry encodedVariant(AssetIndex.Entry entry, String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        if (entry.brotli() != null && acceptsEncoding(acceptEncoding, "br")) {
+            return entry.brotli();
+        }
+        if (entry.gzip() != null && acceptsEncoding(acceptEncoding, "gzip")) {
+            return entry.gzip();
+        }
+        return null;
+    }
+
+    /**
+     * 把文件的直接依赖交给后台预取
+     * 依赖的请求通常带有相同的 Accept-Encoding，预取与本次请求相同编码的版本；
+     * 已经缓存的文件和超过缓存单文件上限的大文件（图片、音视频）跳过
+     */
+    private void prefetchDependencies(AssetIndex.Entry entry, String acceptEncoding) {
+        for (AssetIndex.Entry dep : entry.dependencies()) {
+            AssetIndex.Entry variant = encodedVariant(dep, acceptEncoding);
+            AssetIndex.Entry target = variant != null ? variant : dep;
+            if (target.size > cache.maxEntryBytes() || cache.get(target.assetPath) != null) continue;
+            prefetcher.prefetch(target.assetPath, () -> readFully(target));
+        }
+    }
+
+    /**
+     * 判断 Accept-Encoding 是否接受某种编码（忽略权重，只排除显式的 q=0）
+     */
+    static boolean acceptsEncoding(String acceptEncoding, String coding) {
+        int from = 0;
+        while (from < acceptEncoding.length()) {
+            int comma = acceptEncoding.indexOf(',', from);
+            if (comma < 0) comma = acceptEncoding.length();
+            String token = acceptEncoding.substring(from, comma).trim();
+            from = comma + 1;
+
+            int semi = token.indexOf(';');
+            String name = semi < 0 ? token : token.substring(0, semi).trim();
+            if (name.equalsIgnoreCase(coding)) {
+                return semi < 0 || !token.substring(semi + 1).replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 打开资源的完整内容
+     * 不超过缓存单文件上限的资源整体读入缓存，之后直接返回缓存字节的视图；大文件仍然边读边传
+     *
+     * @param category 决定异步打开时的优先级（MimeTypes.CATEGORY_*）
+     */
+    private InputStream openBody(AssetIndex.Entry entry, int category) throws IOException {
+        if (cache == null || entry.size > cache.maxEntryBytes()) {
+            return open(category, () -> source.open(entry.assetPath));
+        }
+        byte[] data = cache.get(entry.assetPath);
+        if (data != null) {
+            if (metrics != null) metrics.cacheHit();
+            return new ByteArrayInputStream(data);
+        }
+        if (metrics != null) metrics.cacheMiss();
+        return open(category, () -> {
+            // 同一个文件正在预取时等待预取的结果，否则自己读取
+            byte[] loaded = prefetcher != null ? prefetcher.join(entry.assetPath) : null;
+            if (loaded == null) {
+                loaded = readFully(entry);
+                cache.put(entry.assetPath, loaded);
+            }
+            return new ByteArrayInputStream(loaded);
+        });
+    }
+
+    /**
+     * 需要访问 AssetSource 的响应体：有 AsyncStreamer 时交给它按优先级打开，否则立即打开
+     */
+    private InputStream open(int category, AsyncStreamer.Opener opener) throws IOException {
+        return streamer != null ? streamer.stream(category, opener) : opener.open();
+    }
+
+    /**
+     * 按索引中记录的大小一次性读出整个资源
+     */
+    private byte[] readFully(AssetIndex.Entry entry) throws IOException {
+        byte[] data = new byte[(int) entry.size];
+        try (InputStream in = source.open(entry.assetPath)) {
+            int off = 0;
+            while (off < data.length) {
+                int n = in.read(data, off, data.length - off);
+                if (n < 0) throw new IOException("Asset shorter than indexed: " + entry.assetPath);
+                off += n;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * 打开资源中的一段字节，已缓存的资源直接返回缓存字节的视图
+     */
+    private InputStream openRange(AssetIndex.Entry entry, ByteRange range) throws IOException {
+        byte[] cached = cache != null ? cache.get(entry.assetPath) : null;
+        if (cached != null) {
+            return new ByteArrayInputStream(cached, (int) range.start, (int) range.length);
+        }
+        return open(entry.category, () -> source.openRange(entry, range.start, range.length));
+    }
+
+    /**
+     * 读取请求头（WebView传入的请求头名称大小写不固定）
+     */
+    static String header(Map<String, String> headers, String name) {
+        if (headers == null) return null;
+        String value = headers.get(name);
+        if (value != null) return value;
+        for (Map.Entry<String, String> e : headers.entrySet()) {
+            if (name.equalsIgnoreCase(e.getKey())) return e.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * 没有索引时的旧逻辑：拼出assets路径直接尝试打开，依靠IOException判断文件不存在
+     */
+    private AssetResponse openWithoutIndex(String path) {
+        String assetPath = "";
+        try {
+            // 处理默认路径和空路径
+            if (path == null || path.equals("/") || path.isEmpty()) {
+                path = "/" + AssetIndex.DEFAULT_DOCUMENT; // 默认加载index.html
+            }
+            // 移除路径开头的"/"，因为assets路径不需要前导斜杠
+            if (path.startsWith("/")) {
+                path = path.substring(1);
+            }
+            // 构建完整的assets路径：dist/xxx.html
+            assetPath = assetBase + "/" + path;
+
+            InputStream stream = source.open(assetPath);
+            String mimeType = MimeTypes.fromPath(assetPath);
+            return new AssetResponse(200, "OK", mimeType, MimeTypes.charsetFor(mimeType), null, stream, -1);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "File not found: " + assetPath);
+            return notFound();
+        }
+    }
+
+    /**
+     * 输出统计数据，查询串带 reset 时输出后清零
+     */
+    private AssetResponse metricsResponse(String query) {
+        byte[] json = metrics.toJson(cache != null ? cache.totalBytes() : -1).getBytes(StandardCharsets.UTF_8);
+        if (query != null && query.contains("reset")) {
+            metrics.reset();
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        return new AssetResponse(200, "OK", "application/json", "UTF-8", headers,
+            new ByteArrayInputStream(json), json.length);
+    }
+
+    /**
+     * 输出预缓存清单
+     *
+     * 清单由打包时生成的资源索引直接转换而来，与APK（或内容包）中的文件一一对应，不需要在运行时读取或哈希任何文件：
+     *   {"version":"<全部文件哈希的摘要>",
+     *    "assets":[{"url":"/index.html","size":1234,"hash":"3f2a...","type":"text/html","immutable":false}, ...]}
+     * hash 与响应的 ETag（去掉引号）相同；.gz/.br 预压缩版本不单独列出（页面只会请求原始地址）
+ * 设置了后备索引（部分内容包）时，清单列出合并后的全部文件，内容包中的条目覆盖APK中的同名条目，version 也按合并后的列表计算
+     * version 只在文件内容或文件列表变化时改变，Service Worker 可以先比较它，不同时再按 hash 逐个对比，
+     * 只重新下载变化的文件、删除已经不存在的文件
+     *
+     * 应用更新后索引随APK一起变化，清单内容在进程内不变，只生成一次
+     */
+    private AssetResponse precacheResponse() {
+        byte[] json = precache;
+        if (json == null) {
+            json = buildPrecache();
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("ETag", "\"" + precacheVersion + "\"");
+        headers.put("Cache-Control", AssetIndex.CACHE_REVALIDATE);
+        return new AssetResponse(200, "OK", "application/json", "UTF-8", headers,
+            new ByteArrayInputStream(json), json.length);
+    }
+
+    private synchronized byte[] buildPrecache() {
+        if (precache != null) return precache;
+
+        // 后备索引中的文件先放入，本服务器的同名文件覆盖它们
+        Map<String, AssetIndex.Entry> merged = new HashMap<>();
+        AssetIndex fallback = fallbackIndex;
+        if (fallback != null) {
+            for (AssetIndex.Entry entry : withoutVariants(fallback)) merged.put(entry.path, entry);
+        }
+        for (AssetIndex.Entry entry : withoutVariants(index)) merged.put(entry.path, entry);
+        List<AssetIndex.Entry> entries = new ArrayList<>(merged.values());
+        entries.sort((a, b) -> a.path.compareTo(b.path));
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 所有JVM和Android都必须支持SHA-256
+        }
+        StringBuilder assets = new StringBuilder(entries.size() * 128);
+        for (AssetIndex.Entry entry : entries) {
+            if (assets.length() > 0) assets.append(',');
+            assets.append("{\"url\":");
+            Json.appendString(assets, "/" + entry.path);
+            assets.append(",\"size\":").append(entry.size);
+            assets.append(",\"hash\":\"").append(entry.hash).append('"');
+            assets.append(",\"type\":");
+            Json.appendString(assets, entry.mimeType);
+            assets.append(",\"immutable\":").append(entry.flags.indexOf('i') >= 0).append('}');
+            digest.update((entry.path + '\t' + entry.hash + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        String version = toHex(digest.digest(), 10);
+
+        StringBuilder sb = new StringBuilder(assets.length() + 64);
+        sb.append("{\"version\":\"").append(version).append("\",\"assets\":[").append(assets).append("]}");
+        precacheVersion = version;
+        precache = sb.toString().getBytes(StandardCharsets.UTF_8);
+        return precache;
+    }
+
+    /**
+     * 索引中的条目，去掉预压缩版本（它们作为独立条目存在于索引中）
+     */
+    private static List<AssetIndex.Entry> withoutVariants(AssetIndex index) {
+        List<AssetIndex.Entry> entries = index.entries();
+        Set<AssetIndex.Entry> variants = new HashSet<>();
+        for (AssetIndex.Entry entry : entries) {
+            if (entry.gzip() != null) variants.add(entry.gzip());
+            if (entry.brotli() != null) variants.add(entry.brotli());
+        }
+        entries.removeAll(variants);
+        return entries;
+    }
+
+    private static String toHex(byte[] bytes, int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            sb.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(Character.forDigit(bytes[i] & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 构造404响应
+     * 响应体的输入流会被WebView读完，因此响应对象本身每次新建，
+     * 但页面内容复用同一个字节数组，不再每次拼接字符串和编码
+     */
+    private AssetResponse notFound() {
+        if (metrics != null) metrics.notFound();
+        return notFoundResponse();
+    }
+
+    /**
+     * 不计入统计的404响应，供其他保留地址（如 /__files/）使用
+     */
+    static AssetResponse notFoundResponse() {
+        return new AssetResponse(404, "Not Found", "text/html", "UTF-8", null,
+            new ByteArrayInputStream(NOT_FOUND_BODY), NOT_FOUND_BODY.length);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.manual;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 资源来源接口 (纯Java，无Android依赖)
+ *
+ * AssetServer 只通过这个接口读取文件内容：
+ * - APP中使用 ApkAssetSource（AssetManager，读取APK内的assets）
+ * - 桌面JVM上使用 DirectoryAssetSource / ZipAssetSource，供基准测试（bench模块）使用
+ *
+ * 路径都是assets内的完整路径（如"dist/js/app.js"，即 AssetIndex.Entry.assetPath）
+ */
+public interface AssetSource {
+
+    /**
+     * 打开文件的完整内容
+     *
+     * @param assetPath assets内的完整路径
+     * @return 输入流，由调用方关闭
+     * @throws IOException 文件不存在或无法读取
+     */
+    InputStream open(String assetPath) throws IOException;
+
+    /**
+     * 打开文件中的一段字节
+     * 实现应尽量直接定位到区间起点，而不是从头读取并丢弃前面的字节
+     *
+     * @param entry 索引中的条目（包含路径和存储方式）
+     * @param start 区间起始偏移
+     * @param length 区间字节数
+     * @return 只包含区间内容的输入流，由调用方关闭
+     */
+    InputStream openRange(AssetIndex.Entry entry, long start, long length) throws IOException;
+
+    /**
+     * 从头跳过指定字节数后限制读取长度，供无法直接定位的实现使用
+     */
+    static InputStream skipAndLimit(InputStream stream, long start, long length) throws IOException {
+        long toSkip = start;
+        while (toSkip > 0) {
+            long skipped = stream.skip(toSkip);
+            if (skipped <= 0) break;
+            toSkip -= skipped;
+        }
+        return new LimitedInputStream(stream, length);
+    }
+}
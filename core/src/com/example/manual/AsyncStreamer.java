@@ -0,0 +1,243 @@
+package com.example.manual;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 按优先级异步打开响应体 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * shouldInterceptRequest 在WebView的少量IO线程上同步执行，打开文件（缓存未命中时还要整个读入）都会占住这些线程，
+ * 一批图片请求同时到达时，阻塞渲染的HTML/JS请求只能排在后面
+ * 开启异步模式后，AssetServer 只在拦截线程上查索引、生成响应头，响应体换成一个交接流立即返回；
+ * 打开文件（以及把小文件读入缓存）的工作交给这里的专用线程池，按资源类别的优先级调度：
+ *   文档 > 脚本/WASM > 样式/JSON > 字体 > 图片 > 音视频及其他
+ * 同一优先级内按提交顺序执行
+ *
+ * 交接流：WebView读取响应体时先等待线程池打开完成，之后直接从打开的流中读取
+ * 这里没有用字节管道由线程池逐字节写入：管道写满后线程会一直阻塞到读取方跟上，
+ * 媒体播放器按播放进度慢慢读取时会长期占住线程，很快耗尽有界的线程池
+ * 页面在任务开始前取消请求（关闭响应体）时，任务直接跳过，不再打开文件
+ *
+ * 排队的任务数有上限，超过时直接在调用线程上打开（与同步模式相同），不会无限堆积
+ * 注意：响应头在文件打开之前就已经返回，异步打开失败时（索引与资源内容不一致）读取响应体会抛出IOException
+ */
+public final class AsyncStreamer {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /** 按 MimeTypes.CATEGORY_* 索引的优先级，数字越小越先执行 */
+    private static final int[] PRIORITY = new int[MimeTypes.CATEGORY_COUNT];
+
+    static {
+        PRIORITY[MimeTypes.CATEGORY_DOCUMENT] = 0;
+        PRIORITY[MimeTypes.CATEGORY_SCRIPT] = 1;
+        PRIORITY[MimeTypes.CATEGORY_WASM] = 1;
+        PRIORITY[MimeTypes.CATEGORY_STYLE] = 2;
+        PRIORITY[MimeTypes.CATEGORY_DATA] = 2;
+        PRIORITY[MimeTypes.CATEGORY_FONT] = 3;
+        PRIORITY[MimeTypes.CATEGORY_IMAGE] = 4;
+        PRIORITY[MimeTypes.CATEGORY_MEDIA] = 5;
+        PRIORITY[MimeTypes.CATEGORY_OTHER] = 5;
+    }
+
+    /**
+     * 响应体的打开方式，在线程池中执行
+     */
+    public interface Opener {
+        InputStream open() throws IOException;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final int maxQueued; // 排队任务数上限
+    private final QueueMetrics metrics; // 队列统计，为null时不统计
+    private final AtomicInteger queued = new AtomicInteger(); // 已提交但还没开始执行的任务数
+    private final AtomicLong sequence = new AtomicLong(); // 同一优先级内保持提交顺序
+
+    /**
+     * @param threads 线程数
+     * @param maxQueued 排队任务数上限，超过时在调用线程上同步打开
+     * @param metrics 请求统计，队列统计登记为其中的 "queue" 字段；传null表示不统计
+     */
+    public AsyncStreamer(int threads, int maxQueued, AssetMetrics metrics) {
+        this.maxQueued = maxQueued;
+        this.metrics = metrics != null ? metrics.section("queue", QueueMetrics::new) : null;
+        ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "asset-stream-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        // 线程数固定，PriorityBlockingQueue 中的任务按 Task.compareTo 排序
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new PriorityBlockingQueue<Runnable>(), factory);
+        this.executor.allowCoreThreadTimeOut(true); // 空闲时不保留线程
+    }
+
+    /**
+     * 提交一个响应体
+     *
+     * @param category 资源类别（MimeTypes.CATEGORY_*），决定优先级
+     * @param opener 打开响应体的方法
+     * @return 立即可以交给WebView的输入流；队列已满时为同步打开的原始输入流
+     */
+    public InputStream stream(int category, Opener opener) throws IOException {
+        if (queued.get() >= maxQueued || executor.isShutdown()) {
+            if (metrics != null) metrics.rejected();
+            return opener.open();
+        }
+        HandoffInputStream handoff = new HandoffInputStream();
+        queued.incrementAndGet();
+        if (metrics != null) metrics.enter();
+        executor.execute(new Task(category, sequence.getAndIncrement(), opener, handoff));
+        return handoff;
+    }
+
+    /** @return 当前排队的任务数 */
+    public int queueDepth() {
+        return queued.get();
+    }
+
+    /**
+     * 停止线程池，已经排队的任务仍会执行完
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 单个响应体的打开任务
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+        final int category;
+        final int priority;
+        final long seq;
+        final Opener opener;
+        final HandoffInputStream handoff;
+        final long enqueuedNanos = System.nanoTime();
+
+        Task(int category, long seq, Opener opener, HandoffInputStream handoff) {
+            this.category = category;
+            this.priority = PRIORITY[category];
+            this.seq = seq;
+            this.opener = opener;
+            this.handoff = handoff;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) return priority < other.priority ? -1 : 1;
+            return Long.compare(seq, other.seq);
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            if (metrics != null) metrics.leave(category, System.nanoTime() - enqueuedNanos);
+            if (handoff.isClosed()) {
+                // 页面已经取消了请求
+                if (metrics != null) metrics.cancelled();
+                return;
+            }
+            try {
+                handoff.complete(opener.open());
+            } catch (IOException e) {
+                if (metrics != null) metrics.failed();
+                LOG.log(Level.WARNING, "Asset open failed", e);
+                handoff.fail(e);
+            }
+        }
+    }
+
+    /**
+     * 交接流：读取前等待线程池交付真正的输入流，之后所有操作直接转给它
+     */
+    private static final class HandoffInputStream extends InputStream {
+        private InputStream delegate; // 线程池打开的输入流，交付前为null
+        private IOException failure; // 打开失败的原因
+        private boolean closed;
+
+        synchronized boolean isClosed() {
+            return closed;
+        }
+
+        void complete(InputStream in) throws IOException {
+            synchronized (this) {
+                if (!closed) {
+                    delegate = in;
+                    notifyAll();
+                    return;
+                }
+            }
+            in.close(); // 等待期间已经被关闭
+        }
+
+        synchronized void fail(IOException e) {
+            failure = e;
+            notifyAll();
+        }
+
+        private synchronized InputStream await() throws IOException {
+            while (delegate == null && failure == null && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for asset");
+                }
+            }
+            if (closed) throw new IOException("Stream closed");
+            if (failure != null) throw new IOException("Asset open failed", failure);
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return await().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return await().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return await().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            InputStream in;
+            synchronized (this) {
+                in = delegate;
+            }
+            // 还没交付时不阻塞，返回0
+            return in != null ? in.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            InputStream in;
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+                in = delegate;
+                notifyAll();
+            }
+            if (in != null) in.close();
+        }
+    }
+}
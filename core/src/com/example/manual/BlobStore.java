@@ -0,0 +1,91 @@
+package com.example.manual;
+
+import java.io.ByteArrayInputStream;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 交给页面读取的临时二进制数据 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * WebMessagePort 只能传递字符串，几MB以上的二进制数据按latin1编码后在传递中要占两倍的内存；
+ * 消息通道回复的大块二进制数据改为登记在这里，回复中只带一个 /__blob/<令牌> 地址，
+ * 页面用 fetch(地址).then(r => r.arrayBuffer()) 取回，数据直接作为响应体交给WebView，到页面一侧就是 ArrayBuffer
+ *
+ * 每个地址只能读取一次，读取后立即释放；
+ * 令牌是128位随机数，其他页面无法猜到；
+ * 总字节数有上限，超过时丢弃最早登记、一直没有被读取的数据（页面已经不需要了）
+ */
+public final class BlobStore {
+
+    /** 地址前缀，dist中不应有同名目录 */
+    public static final String PATH_PREFIX = "/__blob/";
+
+    private final long maxBytes; // 未被读取的数据总字节数上限
+    private final SecureRandom random = new SecureRandom();
+    private final LinkedHashMap<String, byte[]> blobs = new LinkedHashMap<>(); // 受this保护，按登记顺序排列
+    private long totalBytes; // 受this保护
+
+    /**
+     * @param maxBytes 未被读取的数据总字节数上限
+     */
+    public BlobStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 登记一块数据
+     *
+     * @param data 数据，登记后不得再修改
+     * @return 页面读取用的地址（以"/"开头的路径）
+     */
+    public String put(byte[] data) {
+        byte[] raw = new byte[16];
+        random.nextBytes(raw);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : raw) {
+            token.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        synchronized (this) {
+            blobs.put(token.toString(), data);
+            totalBytes += data.length;
+            // 超过上限时丢弃最早的数据，但刚登记的这一块总是保留
+            Iterator<Map.Entry<String, byte[]>> it = blobs.entrySet().iterator();
+            while (totalBytes > maxBytes && blobs.size() > 1) {
+                totalBytes -= it.next().getValue().length;
+                it.remove();
+            }
+        }
+        return PATH_PREFIX + token;
+    }
+
+    /** @return 未被读取的数据总字节数 */
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * 处理 /__blob/<令牌> 请求，数据返回后即释放
+     *
+     * @param path URL路径
+     * @return 响应；令牌不存在（已经读取过、被丢弃或者伪造）时返回404
+     */
+    public AssetResponse serve(String path) {
+        byte[] data;
+        synchronized (this) {
+            data = blobs.remove(path.substring(PATH_PREFIX.length()));
+            if (data != null) totalBytes -= data.length;
+        }
+        if (data == null) {
+            return AssetServer.notFoundResponse();
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        headers.put("Content-Length", Integer.toString(data.length));
+        return new AssetResponse(200, "OK", "application/octet-stream", null, headers,
+            new ByteArrayInputStream(data), data.length);
+    }
+}
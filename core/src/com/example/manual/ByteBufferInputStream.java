@@ -0,0 +1,62 @@
+package com.example.manual;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 从 ByteBuffer 读取的输入流 (纯Java，无Android依赖)
+ * 内容包以内存映射方式打开，每个响应只是映射区上的一个切片，读取时直接从映射内存复制到调用方的缓冲区
+ */
+final class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer; // 独立的切片，position即读取位置
+    private int mark;
+
+    /**
+     * @param buffer 要读取的内容，position到limit之间的字节；调用方不应再修改它的位置
+     */
+    ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.mark = buffer.position();
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) return 0;
+        int n = Math.min(len, buffer.remaining());
+        if (n == 0) return -1;
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readLimit) {
+        mark = buffer.position();
+    }
+
+    @Override
+    public synchronized void reset() {
+        buffer.position(mark);
+    }
+}
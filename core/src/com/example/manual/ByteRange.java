@@ -0,0 +1,85 @@
+package com.example.manual;
+
+/**
+ * HTTP Range 请求头解析 (纯Java，无Android依赖)
+ *
+ * 只支持单个字节区间（"bytes=start-end"、"bytes=start-"、"bytes=-suffix"），
+ * 这已经覆盖了媒体播放器拖动进度时发出的全部请求；多区间请求按不带Range处理，返回完整内容
+ */
+public final class ByteRange {
+
+    /** 区间超出文件范围时返回的标记对象，调用方应响应 416 */
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, 0);
+
+    public final long start; // 起始偏移（包含）
+    public final long length; // 区间字节数
+
+    private ByteRange(long start, long length) {
+        this.start = start;
+        this.length = length;
+    }
+
+    /** @return 区间最后一个字节的偏移（包含），用于 Content-Range */
+    public long end() {
+        return start + length - 1;
+    }
+
+    /**
+     * 解析 Range 请求头
+     *
+     * @param header Range请求头的值，可以为null
+     * @param size 资源总字节数
+     * @return 解析出的区间；没有Range头或格式无法识别时返回null（按完整内容响应）；
+     *         区间无法满足时返回 {@link #UNSATISFIABLE}
+     */
+    public static ByteRange parse(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        int dash = header.indexOf('-', 6);
+        if (dash < 0 || header.indexOf(',', 6) >= 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dash == 6) {
+                // "bytes=-500"：最后500个字节
+                long suffix = parseNumber(header.substring(dash + 1));
+                if (suffix <= 0) return UNSATISFIABLE;
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = parseNumber(header.substring(6, dash));
+                String tail = header.substring(dash + 1).trim();
+                end = tail.isEmpty() ? Long.MAX_VALUE : parseNumber(tail);
+                if (end < start) return null; // 语法无效，按没有Range处理
+            }
+            // 先判断起点：起点在文件末尾之后的区间（包括"bytes=<大小>-"）无法满足，不能按完整内容响应
+            if (start >= size) {
+                return UNSATISFIABLE;
+            }
+            end = Math.min(end, size - 1);
+            return new ByteRange(start, end - start + 1);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析区间中的非负整数，只接受数字（不接受正负号）
+     */
+    private static long parseNumber(String text) {
+        String digits = text.trim();
+        if (digits.isEmpty()) {
+            throw new NumberFormatException("Empty range bound");
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid range bound: " + text);
+            }
+        }
+        return Long.parseLong(digits);
+    }
+}
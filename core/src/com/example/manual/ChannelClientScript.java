@@ -0,0 +1,149 @@
+package com.example.manual;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消息通道的页面端脚本 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 页面用 <script src="/__channel.js"></script> 引入，之后通过 window.nativeChannel 与原生通信：
+ *   const ch = await nativeChannel.ready;          // 页面加载完成后原生一端送来端口
+ *   const text = await ch.request('kv.get/' + key); // 名称可以带参数（"/"之后），回复为字符串、ArrayBuffer或null
+ *   const buf = await ch.request('file.process', new Uint8Array(data)); // 二进制请求，二进制回复为 ArrayBuffer
+ *   ch.notify('log', 'hello');                      // 通知，不需要回复
+ *
+ * 脚本负责（协议见 ChannelFrames 和 ChannelDispatcher）：
+ * - 同一个事件循环周期内的消息合并成一个批次（queueMicrotask），一次 postMessage 发出
+ * - 二进制内容（ArrayBuffer / TypedArray / DataView）按latin1编码，不做Base64
+ * - 遵守原生一端的许可：许可用完时消息在页面本地排队，收到新的许可后再发出
+ * - U 帧回复自动 fetch 对应的 /__blob/ 地址，调用方拿到的仍是 ArrayBuffer
+ *
+ * 脚本文本只生成一次字节数组，所有请求共用
+ */
+final class ChannelClientScript {
+
+    /** 脚本的保留地址 */
+    static final String PATH = "/__channel.js";
+
+    /** 原生一端送出端口时使用的消息内容，页面据此识别 */
+    static final String PORT_MESSAGE = "native-channel";
+
+    private static final byte[] SCRIPT = (""
+        + "(function () {\n"
+        + "  'use strict';\n"
+        + "  if (window.nativeChannel) return;\n"
+        + "  var port = null, nextId = 1, credits = 0, scheduled = false;\n"
+        + "  var pending = new Map(), waiting = [], outbox = [];\n"
+        + "  var resolveReady, ready = new Promise(function (r) { resolveReady = r; });\n"
+        + "\n"
+        + "  function toBytes(data) {\n"
+        + "    if (data instanceof ArrayBuffer) return new Uint8Array(data);\n"
+        + "    return new Uint8Array(data.buffer, data.byteOffset, data.byteLength);\n"
+        + "  }\n"
+        + "  // 不能用 TextDecoder('latin1')：它实际是 windows-1252，0x80~0x9F 会被改写\n"
+        + "  function toLatin1(bytes) {\n"
+        + "    var parts = [];\n"
+        + "    for (var i = 0; i < bytes.length; i += 0x2000) {\n"
+        + "      parts.push(String.fromCharCode.apply(null, bytes.subarray(i, i + 0x2000)));\n"
+        + "    }\n"
+        + "    return parts.join('');\n"
+        + "  }\n"
+        + "  function fromLatin1(s) {\n"
+        + "    var bytes = new Uint8Array(s.length);\n"
+        + "    for (var i = 0; i < s.length; i++) bytes[i] = s.charCodeAt(i);\n"
+        + "    return bytes.buffer;\n"
+        + "  }\n"
+        + "  function frame(kind, id, name, payload) {\n"
+        + "    return kind + id + ',' + name.length + ',' + payload.length + ':' + name + payload;\n"
+        + "  }\n"
+        + "\n"
+        + "  function flush() {\n"
+        + "    scheduled = false;\n"
+        + "    if (!port || !outbox.length) return;\n"
+        + "    var batch = outbox.join('');\n"
+        + "    outbox = [];\n"
+        + "    port.postMessage(batch);\n"
+        + "  }\n"
+        + "  function pump() {\n"
+        + "    while (port && credits > 0 && waiting.length) {\n"
+        + "      credits--;\n"
+        + "      outbox.push(waiting.shift());\n"
+        + "    }\n"
+        + "    if (outbox.length && !scheduled) {\n"
+        + "      scheduled = true;\n"
+        + "      queueMicrotask(flush);\n"
+        + "    }\n"
+        + "  }\n"
+        + "  function enqueue(textKind, binaryKind, id, method, data) {\n"
+        + "    var binary = data != null && typeof data !== 'string';\n"
+        + "    var payload = data == null ? '' : binary ? toLatin1(toBytes(data)) : String(data);\n"
+        + "    waiting.push(frame(binary ? binaryKind : textKind, id, method, payload));\n"
+        + "    pump();\n"
+        + "  }\n"
+        + "\n"
+        + "  function receive(batch) {\n"
+        + "    var pos = 0;\n"
+        + "    while (pos < batch.length) {\n"
+        + "      var c1 = batch.indexOf(',', pos + 1), c2 = batch.indexOf(',', c1 + 1), colon = batch.indexOf(':', c2 + 1);\n"
+        + "      var kind = batch[pos], id = +batch.substring(pos + 1, c1);\n"
+        + "      var start = colon + 1 + +batch.substring(c1 + 1, c2), end = start + +batch.substring(c2 + 1, colon);\n"
+        + "      var payload = batch.substring(start, end);\n"
+        + "      pos = end;\n"
+        + "      if (kind === 'C') { credits += id; continue; }\n"
+        + "      var p = pending.get(id);\n"
+        + "      if (!p) continue;\n"
+        + "      pending.delete(id);\n"
+        + "      if (kind === 'R') p.resolve(payload);\n"
+        + "      else if (kind === 'Z') p.resolve(null);\n"
+        + "      else if (kind === 'r') p.resolve(fromLatin1(payload));\n"
+        + "      else if (kind === 'U') fetch(payload).then(function (r) { return r.arrayBuffer(); }).then(p.resolve, p.reject);\n"
+        + "      else p.reject(new Error(payload));\n"
+        + "    }\n"
+        + "    pump();\n"
+        + "  }\n"
+        + "\n"
+        + "  var api = {\n"
+        + "    ready: ready,\n"
+        + "    request: function (method, data) {\n"
+        + "      var id = nextId++;\n"
+        + "      return new Promise(function (resolve, reject) {\n"
+        + "        pending.set(id, { resolve: resolve, reject: reject });\n"
+        + "        enqueue('Q', 'q', id, method, data);\n"
+        + "      });\n"
+        + "    },\n"
+        + "    notify: function (method, data) {\n"
+        + "      enqueue('N', 'n', 0, method, data);\n"
+        + "    },\n"
+        + "    get queued() { return waiting.length; }\n"
+        + "  };\n"
+        + "\n"
+        + "  window.addEventListener('message', function (e) {\n"
+        + "    if (e.data !== '" + PORT_MESSAGE + "' || !e.ports || !e.ports.length) return;\n"
+        + "    // 同一个文档收到新端口（原生一端重新连接）：旧端口上未完成的请求不会再有回复\n"
+        + "    pending.forEach(function (p) { p.reject(new Error('channel reset')); });\n"
+        + "    pending.clear();\n"
+        + "    credits = 0;\n"
+        + "    port = e.ports[0];\n"
+        + "    port.onmessage = function (m) { receive(m.data); };\n"
+        + "    resolveReady(api);\n"
+        + "    pump();\n"
+        + "  });\n"
+        + "  window.nativeChannel = api;\n"
+        + "})();\n").getBytes(StandardCharsets.UTF_8);
+
+    private ChannelClientScript() {
+    }
+
+    /**
+     * 处理 /__channel.js 请求
+     */
+    static AssetResponse serve() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", AssetIndex.CACHE_REVALIDATE);
+        return new AssetResponse(200, "OK", "application/javascript", "UTF-8", headers,
+            new ByteArrayInputStream(SCRIPT), SCRIPT.length);
+    }
+}
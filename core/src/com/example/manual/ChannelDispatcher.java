@@ -0,0 +1,422 @@
+package com.example.manual;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 页面与原生之间消息通道的请求分发 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 页面通过 WebMessagePort（见 NativeChannel）发来的请求在这里解析（帧格式见 ChannelFrames），
+ * 按名称交给注册的处理器，在有界的工作线程池中执行，不占用UI线程和端口的消息线程；
+ * 回复先放入发件箱，由端口的消息线程合并成批次发送
+ *
+ * 流量控制（许可）：
+ * 线程池能容纳的任务数（线程数 + 队列长度）是所有连接共用的名额，每个名额对应页面手中的一个许可；
+ * 连接建立时只能拿到当前空闲的名额（旧文档还有请求没处理完时，新连接先拿到剩下的部分，可能为0），
+ * 页面每发出一个请求或通知消耗一个许可，许可用完后在页面本地排队；
+ * 每个请求处理完成后归还一个许可（随回复批次中的 C 帧一起发送），请求被拒绝时同样归还；
+ * 连接关闭后，它手中没用掉的名额和之后完成的请求释放的名额，交给还没有拿满的连接
+ * 这样页面一次提交几十MB的数据时，同时在原生一端的数据量始终有上限，不会堆积在线程池队列或Java堆中
+ * 页面一端不遵守许可时，超出的请求直接回复 E 帧（"busy"）
+ *
+ * 名称：
+ * 处理器按名称注册（如"kv.get"）；请求名称可以在"/"之后带一个参数（如"kv.get/user.settings"），
+ * 没有与完整名称相同的处理器时，交给"/"之前部分的处理器，参数放在 Message.argument 中
+ *
+ * 回复：
+ * 处理器返回文本、字节或null（页面收到null）；字节超过 BLOB_THRESHOLD 时登记到 BlobStore，回复中只带地址（U 帧），
+ * 页面 fetch 这个地址得到 ArrayBuffer，大块数据不经过端口的字符串传递
+ */
+public final class ChannelDispatcher {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /** 超过这个字节数的二进制回复通过 /__blob/ 地址传递 */
+    public static final int BLOB_THRESHOLD = 64 * 1024;
+
+    /** 一个批次的字符数上限，超过时分成多条消息（单帧超过上限时单独成为一条） */
+    static final int MAX_BATCH_CHARS = 512 * 1024;
+
+    /**
+     * 一条收到的请求或通知
+     */
+    public static final class Message {
+        public final String method; // 处理器的名称
+        public final String argument; // 名称中"/"之后的参数，没有时为null
+        public final String text; // 文本内容，二进制消息为null
+        public final byte[] bytes; // 二进制内容，文本消息为null
+
+        Message(String method, String argument, String text, byte[] bytes) {
+            this.method = method;
+            this.argument = argument;
+            this.text = text;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 回复内容
+     */
+    public static final class Reply {
+        /** 没有内容的回复（页面收到空字符串） */
+        public static final Reply EMPTY = new Reply("", null);
+
+        final String text;
+        final byte[] bytes;
+
+        private Reply(String text, byte[] bytes) {
+            this.text = text;
+            this.bytes = bytes;
+        }
+
+        /** 文本回复 */
+        public static Reply text(String text) {
+            return new Reply(text, null);
+        }
+
+        /** 二进制回复，页面收到 ArrayBuffer；回复后不得再修改数组 */
+        public static Reply bytes(byte[] bytes) {
+            return new Reply(null, bytes);
+        }
+    }
+
+    /**
+     * 请求处理器，在工作线程中执行
+     */
+    public interface Handler {
+        /**
+         * @return 回复内容，null表示没有值（页面收到null）；通知的返回值被忽略
+         * @throws Exception 处理失败，异常信息作为错误回复发给页面
+         */
+        Reply handle(Message message) throws Exception;
+    }
+
+    /**
+     * 发送批次给页面（由 Session 在 flushExecutor 上调用）
+     */
+    public interface Sink {
+        void post(String batch);
+    }
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final BlobStore blobs;
+    private final ThreadPoolExecutor executor;
+    private final int capacity; // 同时在原生一端处理或排队的请求数上限，所有连接共用
+
+    // 名额的分配：空闲名额 + 各连接持有的名额 = capacity
+    private final Object slotLock = new Object();
+    private int freeSlots; // 受slotLock保护
+    private final List<Session> starved = new ArrayList<>(); // 受slotLock保护，持有的名额不足 capacity 的打开的连接
+
+    /**
+     * @param threads 工作线程数
+     * @param maxQueued 排队的请求数上限（与线程数之和是所有连接共用的名额）
+     * @param blobs 大块二进制回复的登记处
+     */
+    public ChannelDispatcher(int threads, int maxQueued, BlobStore blobs) {
+        this.blobs = blobs;
+        this.capacity = threads + maxQueued;
+        this.freeSlots = capacity;
+        ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "channel-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        };
+        // 队列长度由名额限制（最多 capacity 个任务），不再另设上限：
+        // 工作线程处理完一个请求、归还名额之后，要稍晚才会从队列取下一个任务，有界队列在这段时间里会拒绝新任务
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), factory);
+        this.executor.allowCoreThreadTimeOut(true); // 空闲时不保留线程
+    }
+
+    /**
+     * 注册处理器，同名的处理器会被替换
+     *
+     * @param method 请求名称，如"kv.get"，不能包含"/"
+     */
+    public void register(String method, Handler handler) {
+        handlers.put(method, handler);
+    }
+
+    /**
+     * 打开一个连接（每个页面文档一个）
+     *
+     * @param sink 发送批次给页面
+     * @param flushExecutor 执行发送的线程（端口的消息线程），回复在这里合并成批次
+     * @return 连接，收到的批次交给 Session.receive
+     */
+    public Session open(Sink sink, Executor flushExecutor) {
+        Session session = new Session(sink, flushExecutor);
+        synchronized (slotLock) {
+            int slots = Math.min(capacity, freeSlots);
+            freeSlots -= slots;
+            session.held = slots;
+            if (slots < capacity) starved.add(session);
+            if (slots > 0) session.grant(slots);
+        }
+        return session;
+    }
+
+    /**
+     * 把空闲名额分给还没有拿满的连接（受slotLock保护）
+     */
+    private void distributeFreeSlots() {
+        while (freeSlots > 0 && !starved.isEmpty()) {
+            Session session = starved.get(0);
+            int slots = Math.min(freeSlots, capacity - session.held);
+            freeSlots -= slots;
+            session.held += slots;
+            if (session.held >= capacity) starved.remove(0);
+            session.grant(slots);
+        }
+    }
+
+    /** @return 当前空闲的名额数（测试用） */
+    int freeSlots() {
+        synchronized (slotLock) {
+            return freeSlots;
+        }
+    }
+
+    /**
+     * 停止线程池，排队的请求仍会执行完（回复在连接关闭后被丢弃）
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 待发送的一条回复
+     */
+    private static final class Outgoing {
+        final char kind;
+        final long id;
+        final String payload;
+
+        Outgoing(char kind, long id, String payload) {
+            this.kind = kind;
+            this.id = id;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * 一个页面文档的连接：持有的名额、许可计数和待发送的回复
+     */
+    public final class Session {
+        private final Sink sink;
+        private final Executor flushExecutor;
+        private int held; // 受slotLock保护，持有的名额（页面手中的许可 + 正在处理的请求）
+        private int inFlight; // 受slotLock保护，已经接收、还没有处理完的请求数
+        private final Object lock = new Object();
+        private List<Outgoing> outbox = new ArrayList<>(); // 受lock保护
+        private int pendingCredits; // 受lock保护，还没有发出的许可
+        private boolean flushScheduled; // 受lock保护
+        private volatile boolean closed;
+
+        private final Runnable flushTask = this::flush;
+
+        Session(Sink sink, Executor flushExecutor) {
+            this.sink = sink;
+            this.flushExecutor = flushExecutor;
+        }
+
+        /**
+         * 处理页面发来的一个批次（在端口的消息线程上调用）
+         */
+        public void receive(String batch) {
+            List<ChannelFrames.Frame> frames;
+            try {
+                frames = ChannelFrames.parse(batch);
+            } catch (IllegalArgumentException e) {
+                LOG.log(Level.WARNING, "Malformed channel batch", e);
+                return;
+            }
+            for (ChannelFrames.Frame frame : frames) {
+                switch (frame.kind) {
+                    case ChannelFrames.REQUEST:
+                    case ChannelFrames.REQUEST_BINARY:
+                    case ChannelFrames.NOTIFY:
+                    case ChannelFrames.NOTIFY_BINARY:
+                        dispatch(frame);
+                        break;
+                    default:
+                        LOG.warning("Unexpected channel frame: " + frame.kind);
+                }
+            }
+        }
+
+        /**
+         * 关闭连接（页面离开或WebView销毁），之后完成的请求不再回复
+         */
+        public void close() {
+            synchronized (slotLock) {
+                if (closed) return;
+                closed = true;
+                starved.remove(this);
+                // 页面手中没用掉的许可不会再用，对应的名额立即释放；正在处理的请求完成时再释放
+                int unused = held - inFlight;
+                held -= unused;
+                freeSlots += unused;
+                distributeFreeSlots();
+            }
+        }
+
+        private void dispatch(ChannelFrames.Frame frame) {
+            boolean request = frame.kind == ChannelFrames.REQUEST || frame.kind == ChannelFrames.REQUEST_BINARY;
+            String method = frame.name;
+            String argument = null;
+            Handler handler = handlers.get(method);
+            int slash = method.indexOf('/');
+            if (handler == null && slash > 0) {
+                argument = method.substring(slash + 1);
+                method = method.substring(0, slash);
+                handler = handlers.get(method);
+            }
+            if (handler == null) {
+                if (request) reply(ChannelFrames.ERROR, frame.id, "No handler: " + frame.name, true);
+                else grant(1);
+                return;
+            }
+            synchronized (slotLock) {
+                if (closed) return;
+                if (inFlight >= held) {
+                    // 页面没有遵守许可
+                    if (request) reply(ChannelFrames.ERROR, frame.id, "busy", true);
+                    else grant(1);
+                    return;
+                }
+                inFlight++;
+            }
+            Message message = frame.isBinary()
+                ? new Message(method, argument, null, frame.bytes())
+                : new Message(method, argument, frame.payload, null);
+            Handler target = handler;
+            try {
+                executor.execute(() -> run(target, message, request, frame.id));
+            } catch (RejectedExecutionException e) {
+                // 线程池已经停止；名额仍然属于这个连接，许可照常归还（通知也一样），否则页面的许可会越来越少
+                if (!finished()) return;
+                if (request) reply(ChannelFrames.ERROR, frame.id, "closed", true);
+                else grant(1);
+            }
+        }
+
+        /**
+         * 一个请求处理结束（或被拒绝），释放它占用的名额
+         *
+         * @return 连接仍然打开（名额留给这个连接，调用方随回复或通知归还许可）；
+         *         已关闭时名额交给其他连接，返回false
+         */
+        private boolean finished() {
+            synchronized (slotLock) {
+                inFlight--;
+                if (!closed) return true;
+                held--;
+                freeSlots++;
+                distributeFreeSlots();
+                return false;
+            }
+        }
+
+        private void run(Handler handler, Message message, boolean request, long id) {
+            Reply result;
+            try {
+                result = handler.handle(message);
+            } catch (Exception e) {
+                LOG.log(Level.WARNING, "Channel handler failed: " + message.method, e);
+                if (!finished()) return;
+                if (request) reply(ChannelFrames.ERROR, id, String.valueOf(e.getMessage()), true);
+                else grant(1);
+                return;
+            }
+            if (!finished()) return;
+            if (!request) {
+                grant(1);
+            } else if (result == null) {
+                reply(ChannelFrames.REPLY_NULL, id, "", true);
+            } else if (result.bytes == null) {
+                reply(ChannelFrames.REPLY, id, result.text, true);
+            } else if (result.bytes.length > BLOB_THRESHOLD) {
+                reply(ChannelFrames.REPLY_BLOB, id, blobs.put(result.bytes), true);
+            } else {
+                reply(ChannelFrames.REPLY_BINARY, id, ChannelFrames.toLatin1(result.bytes), true);
+            }
+        }
+
+        /**
+         * 增加许可（随下一个批次发出）
+         */
+        void grant(int credits) {
+            synchronized (lock) {
+                pendingCredits += credits;
+                scheduleFlush();
+            }
+        }
+
+        private void reply(char kind, long id, String payload, boolean returnCredit) {
+            if (closed) return;
+            synchronized (lock) {
+                outbox.add(new Outgoing(kind, id, payload));
+                if (returnCredit) pendingCredits++;
+                scheduleFlush();
+            }
+        }
+
+        private void scheduleFlush() {
+            // 受lock保护；已经安排过的发送会把之后加入的回复一起带上
+            if (flushScheduled || closed) return;
+            flushScheduled = true;
+            flushExecutor.execute(flushTask);
+        }
+
+        /**
+         * 把发件箱中的全部回复合并成批次发送（在 flushExecutor 上执行）
+         */
+        private void flush() {
+            List<Outgoing> items;
+            int credits;
+            synchronized (lock) {
+                items = outbox;
+                outbox = new ArrayList<>();
+                credits = pendingCredits;
+                pendingCredits = 0;
+                flushScheduled = false;
+            }
+            if (closed) return;
+
+            StringBuilder batch = new StringBuilder();
+            for (Outgoing item : items) {
+                if (batch.length() > 0
+                        && batch.length() + ChannelFrames.encodedLength(item.id, "", item.payload) > MAX_BATCH_CHARS) {
+                    sink.post(batch.toString());
+                    batch.setLength(0);
+                }
+                ChannelFrames.append(batch, item.kind, item.id, "", item.payload);
+            }
+            // 许可放在最后：页面先处理完这些回复再发出新的请求
+            if (credits > 0) {
+                ChannelFrames.append(batch, ChannelFrames.CREDIT, credits, "", "");
+            }
+            if (batch.length() > 0) {
+                sink.post(batch.toString());
+            }
+        }
+    }
+}
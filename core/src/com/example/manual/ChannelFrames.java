@@ -0,0 +1,137 @@
+package com.example.manual;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 页面与原生之间消息通道的帧格式 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * WebMessagePort 每次 postMessage 都是一次跨进程传递，消息很多时逐条发送的开销主要在传递次数上，
+ * 因此多条消息拼成一个字符串（批次）一起发送，这里负责批次的编码和解析
+ *
+ * 帧格式（长度都以UTF-16字符计，与JS的 String.length 和Java的 String.length() 一致）：
+ *   <类型><编号>,<名称长度>,<内容长度>:<名称><内容>
+ * 一个批次就是若干帧直接首尾相接
+ *
+ * 类型：
+ *   页面 → 原生  Q 请求（文本内容）  q 请求（二进制内容）  N 通知，不需要回复（文本）  n 通知（二进制）
+ *   原生 → 页面  R 回复（文本）  r 回复（二进制）  U 回复内容在 /__blob/ 地址中（内容是地址）  E 出错（内容是错误信息）
+ *               Z 回复（没有值，页面收到null）
+ *               C 许可（编号字段是新增的许可数，没有名称和内容），见 ChannelDispatcher 的流量控制
+ *
+ * 二进制内容按 latin1 编码成字符串：每个字节对应一个0~255的字符，
+ * 两端都只是逐字节转换，没有Base64的膨胀和编解码开销
+ * 注意：页面一端必须用 String.fromCharCode / charCodeAt 转换，不能用 TextDecoder('latin1')（它实际是windows-1252）
+ */
+final class ChannelFrames {
+
+    static final char REQUEST = 'Q';
+    static final char REQUEST_BINARY = 'q';
+    static final char NOTIFY = 'N';
+    static final char NOTIFY_BINARY = 'n';
+    static final char REPLY = 'R';
+    static final char REPLY_BINARY = 'r';
+    static final char REPLY_BLOB = 'U';
+    static final char REPLY_NULL = 'Z';
+    static final char ERROR = 'E';
+    static final char CREDIT = 'C';
+
+    /**
+     * 解析出的一帧
+     */
+    static final class Frame {
+        final char kind;
+        final long id;
+        final String name;
+        final String payload; // 二进制帧为latin1编码的字符串
+
+        Frame(char kind, long id, String name, String payload) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+            this.payload = payload;
+        }
+
+        /** @return 是否为二进制内容 */
+        boolean isBinary() {
+            return kind == REQUEST_BINARY || kind == NOTIFY_BINARY || kind == REPLY_BINARY;
+        }
+
+        /** @return 二进制内容的字节 */
+        byte[] bytes() {
+            return fromLatin1(payload);
+        }
+    }
+
+    private ChannelFrames() {
+    }
+
+    /**
+     * 把一帧追加到批次中
+     */
+    static void append(StringBuilder batch, char kind, long id, String name, String payload) {
+        batch.append(kind).append(id).append(',').append(name.length()).append(',').append(payload.length())
+            .append(':').append(name).append(payload);
+    }
+
+    /**
+     * @return 一帧编码后的字符数，用于控制批次大小
+     */
+    static int encodedLength(long id, String name, String payload) {
+        // 类型1个字符 + 3个分隔符 + 3个数字（每个最多19位）+ 名称 + 内容
+        return 4 + digits(id) + digits(name.length()) + digits(payload.length()) + name.length() + payload.length();
+    }
+
+    private static int digits(long value) {
+        int n = 1;
+        while (value >= 10) {
+            value /= 10;
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 解析一个批次
+     *
+     * @throws IllegalArgumentException 格式错误（页面一端的实现有问题）
+     */
+    static List<Frame> parse(String batch) {
+        List<Frame> frames = new ArrayList<>();
+        int pos = 0;
+        while (pos < batch.length()) {
+            char kind = batch.charAt(pos);
+            int c1 = batch.indexOf(',', pos + 1);
+            int c2 = c1 < 0 ? -1 : batch.indexOf(',', c1 + 1);
+            int colon = c2 < 0 ? -1 : batch.indexOf(':', c2 + 1);
+            if (colon < 0) {
+                throw new IllegalArgumentException("Malformed frame at " + pos);
+            }
+            long id = Long.parseLong(batch.substring(pos + 1, c1));
+            int nameLength = Integer.parseInt(batch.substring(c1 + 1, c2));
+            int payloadLength = Integer.parseInt(batch.substring(c2 + 1, colon));
+            int nameStart = colon + 1;
+            int payloadStart = nameStart + nameLength;
+            int end = payloadStart + payloadLength;
+            if (nameLength < 0 || payloadLength < 0 || end > batch.length() || end < nameStart) {
+                throw new IllegalArgumentException("Frame exceeds batch at " + pos);
+            }
+            frames.add(new Frame(kind, id, batch.substring(nameStart, payloadStart),
+                batch.substring(payloadStart, end)));
+            pos = end;
+        }
+        return frames;
+    }
+
+    /** 字节 → latin1字符串 */
+    static String toLatin1(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /** latin1字符串 → 字节（超出0~255的字符会变成'?'，页面一端不会产生这样的字符） */
+    static byte[] fromLatin1(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.manual;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内容包 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 把整个网页构建产物（dist目录 + 索引信息）打成一个文件，下载到应用私有目录后即可替换APK内的 assets/dist，
+ * 更新网页不再需要重新走 aapt2/d8/zipalign/apksigner 整个流程
+ * 打开时整个文件只做一次只读内存映射，之后每个请求都只是映射区上的一个切片，不再经过APK的zip结构
+ *
+ * 文件格式（大端序）：
+ *   文件头（32字节）
+ *     0   int   魔数 "MPK1"
+ *     4   int   版本号（当前为1）
+ *     8   int   条目数
+ *     12  int   文件表字节数
+ *     16  long  数据区起始偏移（PAGE_SIZE 的整数倍）
+ *     24  long  文件总字节数（用于发现下载不完整的文件）
+ *   文件表（紧接文件头，按路径升序排列）
+ *     u16 路径字节数 + 路径（UTF-8，相对dist，不带前导斜杠）
+ *     u8  MIME字节数 + MIME类型
+ *     u8  标志字节数 + 标志（与资源索引相同，见 AssetIndex）
+ *     u64 内容在文件中的偏移（PAGE_SIZE 的整数倍）
+ *     u64 内容字节数
+ *     10字节 内容哈希（SHA-256的前10字节，十六进制后即为ETag）
+ *   数据区
+ *     各文件内容，不压缩，每个文件都从新的一页开始
+ *
+ * 映射区在内容包对象被回收之前一直有效，替换为新的内容包后，还在读取旧内容的响应不受影响
+ */
+public final class ContentPack implements AssetSource {
+
+    /** 文件头魔数 "MPK1" */
+    public static final int MAGIC = 0x4D504B31;
+
+    /** 当前格式版本，版本号不同的内容包会被拒绝 */
+    public static final int VERSION = 1;
+
+    /** 数据对齐单位，与Android的内存页大小一致 */
+    public static final int PAGE_SIZE = 4096;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int HASH_BYTES = 10;
+
+    private final ByteBuffer mapped; // 整个文件的只读映射
+    private final AssetIndex index; // 由文件表生成的索引
+    private final Map<String, Extent> extents; // assetPath -> 内容在文件中的位置
+    private final File file;
+
+    /**
+     * 条目内容在文件中的位置
+     */
+    private static final class Extent {
+        final int offset;
+        final int length;
+
+        Extent(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private ContentPack(File file, ByteBuffer mapped, AssetIndex index, Map<String, Extent> extents) {
+        this.file = file;
+        this.mapped = mapped;
+        this.index = index;
+        this.extents = extents;
+    }
+
+    /**
+     * 打开内容包：映射整个文件并检查文件头和文件表（不检查内容哈希，见 verify）
+     *
+     * @param file 内容包文件
+     * @param assetBase 条目的assets基础目录（如"dist"），与APK中的资源保持一致
+     * @throws IOException 文件无法读取或格式不对
+     */
+    public static ContentPack open(File file, String assetBase) throws IOException {
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Content pack too large: " + size);
+            }
+            // 映射建立后不再依赖文件描述符，通道可以立即关闭
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (mapped.capacity() < HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a content pack: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Unsupported content pack version: " + mapped.getInt(4));
+        }
+        int count = mapped.getInt(8);
+        int tableSize = mapped.getInt(12);
+        long dataOffset = mapped.getLong(16);
+        long totalSize = mapped.getLong(24);
+        if (totalSize != mapped.capacity()) {
+            throw corrupt("size " + mapped.capacity() + " != " + totalSize);
+        }
+        if (count < 0 || tableSize < 0 || HEADER_SIZE + (long) tableSize > dataOffset || dataOffset > totalSize
+                || dataOffset % PAGE_SIZE != 0) {
+            throw corrupt("bad header");
+        }
+
+        ByteBuffer table = mapped.duplicate();
+        table.position(HEADER_SIZE).limit(HEADER_SIZE + tableSize);
+        List<AssetIndex.Entry> list = new ArrayList<>(count);
+        Map<String, Extent> extents = new HashMap<>();
+        String previous = null;
+        try {
+            for (int i = 0; i < count; i++) {
+                String path = readString(table, table.getShort() & 0xffff);
+                String mime = readString(table, table.get() & 0xff);
+                String flags = readString(table, table.get() & 0xff);
+                long offset = table.getLong();
+                long length = table.getLong();
+                byte[] hash = new byte[HASH_BYTES];
+                table.get(hash);
+
+                // 文件表必须严格按路径升序，同时保证路径不重复
+                if (previous != null && previous.compareTo(path) >= 0) {
+                    throw corrupt("table not sorted at " + path);
+                }
+                if (offset < dataOffset || offset % PAGE_SIZE != 0 || length < 0 || offset + length > totalSize) {
+                    throw corrupt("bad extent for " + path);
+                }
+                previous = path;
+
+                AssetIndex.Entry entry = new AssetIndex.Entry(assetBase, path, length, mime, flags, toHex(hash));
+                list.add(entry);
+                extents.put(entry.assetPath, new Extent((int) offset, (int) length));
+            }
+        } catch (BufferUnderflowException e) {
+            throw corrupt("truncated table");
+        }
+        return new ContentPack(file, mapped, AssetIndex.of(list), extents);
+    }
+
+    /**
+     * 安装新下载的内容包：检查格式和全部内容哈希，通过后原子地移动到目标位置
+     * 目标位置上的旧内容包如果正在被映射，旧映射不受影响，直到对象被回收
+     *
+     * @param downloaded 下载完成的临时文件，必须与目标在同一个目录（同一文件系统）中
+     * @param target 内容包的正式位置
+     * @param assetBase 条目的assets基础目录
+     * @return 已打开的新内容包
+     * @throws IOException 格式不对、哈希不匹配或无法移动；此时目标位置保持不变
+     */
+    public static ContentPack install(File downloaded, File target, String assetBase) throws IOException {
+        ContentPack pack = open(downloaded, assetBase);
+        pack.verify();
+        Files.move(downloaded.toPath(), target.toPath(),
+            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // 映射跟随文件本身而不是路径，移动后继续有效
+        return new ContentPack(target, pack.mapped, pack.index, pack.extents);
+    }
+
+    /**
+     * 逐个检查条目内容的SHA-256是否与文件表一致
+     *
+     * @throws IOException 任何一个条目不匹配
+     */
+    public void verify() throws IOException {
+        MessageDigest digest = sha256();
+        for (AssetIndex.Entry entry : index.entries()) {
+            digest.reset();
+            digest.update(slice(extents.get(entry.assetPath), 0, entry.size));
+            if (!toHex(digest.digest()).startsWith(entry.hash)) {
+                throw corrupt("hash mismatch for " + entry.path);
+            }
+        }
+    }
+
+    /** @return 由文件表生成的索引 */
+    public AssetIndex index() {
+        return index;
+    }
+
+    /** @return 内容包文件 */
+    public File file() {
+        return file;
+    }
+
+    @Override
+    public InputStream open(String assetPath) throws IOException {
+        Extent extent = extents.get(assetPath);
+        if (extent == null) {
+            throw new FileNotFoundException(assetPath);
+        }
+        return new ByteBufferInputStream(slice(extent, 0, extent.length));
+    }
+
+    /**
+     * 内容包中所有内容都不压缩，区间直接就是映射区上的一段
+     */
+    @Override
+    public InputStream openRange(AssetIndex.Entry entry, long start, long length) throws IOException {
+        Extent extent = extents.get(entry.assetPath);
+        if (extent == null) {
+            throw new FileNotFoundException(entry.assetPath);
+        }
+        return new ByteBufferInputStream(slice(extent, start, length));
+    }
+
+    /**
+     * 取得条目内容中的一段，返回独立的切片（各自的读取位置互不影响，可以在多个线程中同时读取）
+     */
+    private ByteBuffer slice(Extent extent, long start, long length) {
+        int position = extent.offset + (int) start;
+        ByteBuffer view = mapped.duplicate();
+        view.position(position).limit(position + (int) length);
+        return view.slice();
+    }
+
+    /**
+     * 把条目及其内容写成内容包（打包工具使用）
+     *
+     * @param packFile 输出文件
+     * @param distDir 条目内容所在的目录，条目路径相对于这个目录
+     * @param list 要写入的条目，写入前按路径排序
+     */
+    public static void write(File packFile, File distDir, Collection<AssetIndex.Entry> list) throws IOException {
+        List<AssetIndex.Entry> entries = new ArrayList<>(list);
+        entries.sort((a, b) -> a.path.compareTo(b.path));
+
+        // 先算出文件表大小，才能确定数据区和每个条目的偏移
+        int tableSize = 0;
+        for (AssetIndex.Entry e : entries) {
+            tableSize += 2 + utf8(e.path).length + 1 + utf8(e.mimeType).length + 1 + utf8(e.flags).length
+                + 8 + 8 + HASH_BYTES;
+        }
+        long dataOffset = align(HEADER_SIZE + (long) tableSize);
+        long[] offsets = new long[entries.size()];
+        long end = dataOffset;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = end;
+            end = align(end + entries.get(i).size);
+        }
+
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE + tableSize);
+        head.putInt(MAGIC).putInt(VERSION).putInt(entries.size()).putInt(tableSize).putLong(dataOffset).putLong(end);
+        for (int i = 0; i < offsets.length; i++) {
+            AssetIndex.Entry e = entries.get(i);
+            byte[] path = utf8(e.path);
+            byte[] mime = utf8(e.mimeType);
+            byte[] flags = utf8(e.flags);
+            if (path.length > 0xffff || mime.length > 0xff || flags.length > 0xff) {
+                throw new IOException("Field too long: " + e.path);
+            }
+            head.putShort((short) path.length).put(path);
+            head.put((byte) mime.length).put(mime);
+            head.put((byte) flags.length).put(flags);
+            head.putLong(offsets[i]).putLong(e.size).put(fromHex(e.hash));
+        }
+
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(packFile), 64 * 1024)) {
+            out.write(head.array());
+            long written = head.capacity();
+            for (int i = 0; i < offsets.length; i++) {
+                written = pad(out, written, offsets[i]);
+                AssetIndex.Entry e = entries.get(i);
+                try (InputStream in = new FileInputStream(new File(distDir, e.path))) {
+                    long copied = in.transferTo(out);
+                    if (copied != e.size) {
+                        throw new IOException("Size changed since indexing: " + e.path);
+                    }
+                    written += copied;
+                }
+            }
+            pad(out, written, end);
+        }
+    }
+
+    private static long align(long offset) {
+        return (offset + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+
+    private static long pad(OutputStream out, long from, long to) throws IOException {
+        for (long i = from; i < to; i++) {
+            out.write(0);
+        }
+        return to;
+    }
+
+    private static String readString(ByteBuffer buffer, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] fromHex(String hex) throws IOException {
+        if (hex.length() != HASH_BYTES * 2) {
+            throw new IOException("Unexpected hash length: " + hex);
+        }
+        byte[] bytes = new byte[HASH_BYTES];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        }
+        return bytes;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static IOException corrupt(String detail) {
+        return new IOException("Corrupt content pack: " + detail);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.manual;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 从本地目录读取资源 (纯Java，无Android依赖)
+ * 目录结构与APK中的assets目录相同（根目录下有dist/和dist.index），用于在桌面JVM上运行基准测试
+ */
+public final class DirectoryAssetSource implements AssetSource {
+    private final File root;
+
+    /**
+     * @param root 相当于APK中assets目录的本地目录
+     */
+    public DirectoryAssetSource(File root) {
+        this.root = root;
+    }
+
+    @Override
+    public InputStream open(String assetPath) throws IOException {
+        return new FileInputStream(new File(root, assetPath));
+    }
+
+    @Override
+    public InputStream openRange(AssetIndex.Entry entry, long start, long length) throws IOException {
+        FileChannel channel = FileChannel.open(new File(root, entry.assetPath).toPath(), StandardOpenOption.READ);
+        return new RangeInputStream(channel, start, length, channel);
+    }
+}
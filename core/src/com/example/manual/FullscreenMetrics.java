@@ -0,0 +1,73 @@
+package com.example.manual;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 全屏过渡（FullscreenHost）的统计 (纯Java，无Android依赖)
+ *
+ * 进入和退出全屏分别统计：次数、过渡耗时、过渡期间的帧数、掉帧数、最长的一帧和布局次数
+ * 在 /__metrics 的 "fullscreen" 字段中输出
+ */
+final class FullscreenMetrics implements MetricsSection {
+
+    // 下标0为进入、1为退出
+    private static final String[] NAMES = {"enter", "exit"};
+    private final AtomicLongArray transitions = new AtomicLongArray(2);
+    private final AtomicLongArray totalMillis = new AtomicLongArray(2);
+    private final AtomicLongArray maxMillis = new AtomicLongArray(2);
+    private final AtomicLongArray frames = new AtomicLongArray(2);
+    private final AtomicLongArray droppedFrames = new AtomicLongArray(2);
+    private final AtomicLongArray maxFrameMillis = new AtomicLongArray(2);
+    private final AtomicLongArray layouts = new AtomicLongArray(2);
+
+    /**
+     * 一次全屏过渡结束
+     *
+     * @param enter true表示进入全屏，false表示退出
+     * @param millis 从开始过渡到画面稳定的毫秒数
+     * @param frameCount 过渡期间绘制的帧数
+     * @param dropped 过渡期间掉的帧数（按刷新周期计）
+     * @param maxFrame 过渡期间最长的帧间隔
+     * @param layoutCount 过渡期间的布局次数
+     */
+    void transition(boolean enter, long millis, int frameCount, int dropped, long maxFrame, int layoutCount) {
+        int i = enter ? 0 : 1;
+        transitions.incrementAndGet(i);
+        totalMillis.addAndGet(i, millis);
+        AssetMetrics.updateMax(maxMillis, i, millis);
+        frames.addAndGet(i, frameCount);
+        droppedFrames.addAndGet(i, dropped);
+        AssetMetrics.updateMax(maxFrameMillis, i, maxFrame);
+        layouts.addAndGet(i, layoutCount);
+    }
+
+    @Override
+    public void appendJson(StringBuilder sb) {
+        sb.append('{');
+        for (int i = 0; i < 2; i++) {
+            long count = transitions.get(i);
+            if (i > 0) sb.append(',');
+            sb.append('"').append(NAMES[i]).append("\":{\"count\":").append(count)
+                .append(",\"avgMillis\":").append(count == 0 ? 0 : totalMillis.get(i) / count)
+                .append(",\"maxMillis\":").append(maxMillis.get(i))
+                .append(",\"frames\":").append(frames.get(i))
+                .append(",\"droppedFrames\":").append(droppedFrames.get(i))
+                .append(",\"maxFrameMillis\":").append(maxFrameMillis.get(i))
+                .append(",\"layouts\":").append(layouts.get(i)).append('}');
+        }
+        sb.append('}');
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < 2; i++) {
+            transitions.set(i, 0);
+            totalMillis.set(i, 0);
+            maxMillis.set(i, 0);
+            frames.set(i, 0);
+            droppedFrames.set(i, 0);
+            maxFrameMillis.set(i, 0);
+            layouts.set(i, 0);
+        }
+    }
+}
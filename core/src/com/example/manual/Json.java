@@ -0,0 +1,31 @@
+package com.example.manual;
+
+/**
+ * 手写JSON输出的辅助方法 (纯Java，无Android依赖)
+ *
+ * 各保留地址（/__metrics、/__state、/__files/ 等）和消息通道的回复都是直接拼接的JSON，
+ * 字符串值统一经过这里转义
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * 追加一个带引号的JSON字符串，转义引号、反斜杠和控制字符
+     */
+    static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,521 @@
+package com.example.manual;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * 页面使用的持久化键值存储 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 代替 localStorage 保存页面的大量状态：localStorage 只能存字符串、有容量上限，
+ * 而且页面第一次访问时要在主线程上同步读入整个源的全部数据，数据越多启动越慢
+ * 这里的数据在原生一侧，页面异步读写，值可以是文本或二进制
+ *
+ * 页面用法（写入经过消息通道，见 ChannelDispatcher；读取也可以直接 fetch）：
+ *   const ch = await nativeChannel.ready;
+ *   await ch.request('kv.put/' + key, 'text');          // 文本值
+ *   await ch.request('kv.put/' + key, new Uint8Array(b)); // 二进制值
+ *   const v = await ch.request('kv.get/' + key);          // 字符串或 ArrayBuffer，不存在时为null
+ *   await ch.request('kv.delete/' + key);
+ *   const keys = JSON.parse(await ch.request('kv.keys/' + prefix)); // 按前缀列出键
+ *   await ch.request('kv.sync');                          // 等待之前的写入落盘
+ *   const r = await fetch('/__kv/' + encodeURIComponent(key)); // 200 或 404，不缓存
+ * WebView的 shouldInterceptRequest 拿不到请求体，所以 /__kv/ 地址只支持读取
+ *
+ * 存储格式（单个只追加的日志文件）：
+ *   每条记录：<类型 1字节><键长度 4字节><值长度 4字节><CRC32 4字节><键 UTF-8><值>
+ *   类型：文本值、二进制值、删除（值长度为0）
+ * 内存中只保存 键 → 记录位置 的索引，值在读取时才从文件中定位读（pread）出来
+ *
+ * 启动：
+ * 第一次访问时才打开文件（在调用方的工作线程上，不在主线程），只读记录头和键、跳过所有的值，
+ * 因此打开耗时只与记录条数有关，与数据总量无关；压缩保证记录条数与现存的键数同一量级
+ * 文件末尾不完整的记录（写入时进程被杀）会被截掉
+ *
+ * 落盘（fsync）：
+ * 写入返回时数据已经交给系统（应用进程崩溃不会丢失），落盘在专用线程上延迟 SYNC_DELAY_MILLIS 后合并进行，
+ * 同一段时间内的多次写入只需要一次 fsync；需要确认落盘时调用 sync()（页面发送 kv.sync）
+ *
+ * 压缩：
+ * 被覆盖和删除的记录超过 COMPACT_MIN_GARBAGE 字节、并且多于现存数据时，
+ * 在落盘线程上把现存记录复制到新文件，再原子地替换旧文件；压缩期间的写入会等待
+ */
+public final class KvStore {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /** 读取地址前缀，dist中不应有同名目录 */
+    public static final String PATH_PREFIX = "/__kv/";
+
+    /** 键的UTF-8字节数上限 */
+    public static final int MAX_KEY_BYTES = 1024;
+
+    /** 单个值的字节数上限 */
+    public static final int MAX_VALUE_BYTES = 16 * 1024 * 1024;
+
+    /** 写入后延迟多久落盘（期间的写入合并成一次 fsync） */
+    static final long SYNC_DELAY_MILLIS = 100;
+
+    /** 触发压缩的最少垃圾字节数 */
+    static final long COMPACT_MIN_GARBAGE = 1024 * 1024;
+
+    private static final String LOG_FILE = "data.log";
+    private static final String COMPACT_FILE = "data.log.compact";
+
+    private static final byte TYPE_TEXT = 1;
+    private static final byte TYPE_BINARY = 2;
+    private static final byte TYPE_DELETE = 3;
+    private static final int HEADER_BYTES = 13;
+    private static final int SCAN_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * 读出的值
+     */
+    public static final class Value {
+        public final byte[] bytes;
+        public final boolean text; // 写入时是文本（UTF-8）还是二进制
+
+        Value(byte[] bytes, boolean text) {
+            this.bytes = bytes;
+            this.text = text;
+        }
+
+        /** @return 文本值的字符串 */
+        public String string() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * 索引项：一条现存记录在文件中的位置
+     */
+    private static final class Location {
+        final long offset; // 记录头的偏移
+        final int keyLength;
+        final int valueLength;
+        final int crc;
+        final boolean text;
+
+        Location(long offset, int keyLength, int valueLength, int crc, boolean text) {
+            this.offset = offset;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+            this.crc = crc;
+            this.text = text;
+        }
+
+        long recordLength() {
+            return HEADER_BYTES + keyLength + valueLength;
+        }
+
+        long valueOffset() {
+            return offset + HEADER_BYTES + keyLength;
+        }
+    }
+
+    private final File dir;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // 读取共享，写入和压缩独占
+    private final ScheduledThreadPoolExecutor syncer;
+
+    // 以下受lock保护（读锁下只读）
+    private FileChannel channel; // 打开之前为null
+    private final Map<String, Location> index = new HashMap<>();
+    private long end; // 文件末尾，即下一条记录的偏移
+    private long liveBytes; // 现存记录的总字节数，end - liveBytes 就是垃圾字节数
+
+    private final Object syncLock = new Object();
+    private boolean syncScheduled; // 受syncLock保护
+
+    /**
+     * 只记录目录位置，文件在第一次访问时才打开
+     *
+     * @param dir 存放日志文件的目录（应用私有目录下），不存在时自动创建
+     */
+    public KvStore(File dir) {
+        this.dir = dir;
+        this.syncer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "kv-sync");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 读取一个键的值
+     *
+     * @return 值；键不存在时返回null
+     * @throws IOException 读取失败或记录校验不通过
+     */
+    public Value get(String key) throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            Location location = index.get(key);
+            if (location == null) return null;
+            ByteBuffer value = ByteBuffer.allocate(location.valueLength);
+            readFully(channel, value, location.valueOffset());
+            CRC32 crc = new CRC32();
+            crc.update(key.getBytes(StandardCharsets.UTF_8));
+            crc.update(value.array());
+            if ((int) crc.getValue() != location.crc) {
+                throw new IOException("Corrupt value for key: " + key);
+            }
+            return new Value(value.array(), location.text);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入文本值
+     */
+    public void put(String key, String value) throws IOException {
+        append(key, TYPE_TEXT, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 写入二进制值
+     */
+    public void put(String key, byte[] value) throws IOException {
+        append(key, TYPE_BINARY, value);
+    }
+
+    /**
+     * 删除一个键，键不存在时什么也不做
+     */
+    public void delete(String key) throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            if (!index.containsKey(key)) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        append(key, TYPE_DELETE, new byte[0]);
+    }
+
+    /**
+     * @param prefix 键的前缀，空字符串表示全部
+     * @return 以prefix开头的所有键（无序）
+     */
+    public List<String> keys(String prefix) throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            List<String> keys = new ArrayList<>();
+            for (String key : index.keySet()) {
+                if (key.startsWith(prefix)) keys.add(key);
+            }
+            return keys;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 立即落盘，返回时之前的所有写入都已经写到存储设备上
+     */
+    public void sync() throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            channel.force(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 处理 /__kv/<键> 请求
+     *
+     * @param path URL路径（已解码）
+     * @return 响应：文本值为 text/plain，二进制值为 application/octet-stream；键不存在时返回404
+     */
+    public AssetResponse serve(String path) {
+        String key = path.substring(PATH_PREFIX.length());
+        Value value;
+        try {
+            value = get(key);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "KV read failed: " + key, e);
+            return new AssetResponse(500, "Internal Server Error", "text/plain", "UTF-8", noStore(),
+                new ByteArrayInputStream(new byte[0]), 0);
+        }
+        if (value == null) {
+            return AssetServer.notFoundResponse();
+        }
+        Map<String, String> headers = noStore();
+        headers.put("Content-Length", Integer.toString(value.bytes.length));
+        return new AssetResponse(200, "OK", value.text ? "text/plain" : "application/octet-stream",
+            value.text ? "UTF-8" : null, headers, new ByteArrayInputStream(value.bytes), value.bytes.length);
+    }
+
+    private void append(String key, byte type, byte[] value) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length == 0 || keyBytes.length > MAX_KEY_BYTES) {
+            throw new IOException("Invalid key length: " + keyBytes.length);
+        }
+        if (value.length > MAX_VALUE_BYTES) {
+            throw new IOException("Value too large: " + value.length);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(value);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + keyBytes.length + value.length);
+        record.put(type).putInt(keyBytes.length).putInt(value.length).putInt((int) crc.getValue())
+            .put(keyBytes).put(value);
+        record.flip();
+
+        ensureOpen();
+        lock.writeLock().lock();
+        try {
+            long offset = end;
+            writeFully(channel, record, offset);
+            end += record.capacity();
+            Location old = type == TYPE_DELETE
+                ? index.remove(key)
+                : index.put(key, new Location(offset, keyBytes.length, value.length, (int) crc.getValue(),
+                    type == TYPE_TEXT));
+            if (old != null) liveBytes -= old.recordLength();
+            if (type != TYPE_DELETE) liveBytes += record.capacity();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        scheduleSync();
+    }
+
+    private void scheduleSync() {
+        synchronized (syncLock) {
+            if (syncScheduled) return;
+            syncScheduled = true;
+        }
+        syncer.schedule(this::syncAndCompact, SYNC_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 落盘线程：合并落盘，需要时压缩
+     */
+    private void syncAndCompact() {
+        synchronized (syncLock) {
+            syncScheduled = false; // 落盘开始后的写入由下一次落盘负责
+        }
+        try {
+            sync();
+            boolean compact;
+            lock.readLock().lock();
+            try {
+                long garbage = end - liveBytes;
+                compact = garbage > COMPACT_MIN_GARBAGE && garbage > liveBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (compact) compact();
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "KV sync failed", e);
+        }
+    }
+
+    /**
+     * 把现存记录复制到新文件并替换旧文件
+     * 复制使用 transferTo，数据不经过Java堆
+     */
+    private void compact() throws IOException {
+        File target = new File(dir, COMPACT_FILE);
+        lock.writeLock().lock();
+        try {
+            long before = end;
+            FileChannel compacted = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Map<String, Location> moved = new HashMap<>(index.size() * 2);
+            long position = 0;
+            try {
+                for (Map.Entry<String, Location> e : index.entrySet()) {
+                    Location old = e.getValue();
+                    long length = old.recordLength();
+                    long copied = 0;
+                    while (copied < length) {
+                        copied += channel.transferTo(old.offset + copied, length - copied, compacted);
+                    }
+                    moved.put(e.getKey(), new Location(position, old.keyLength, old.valueLength, old.crc, old.text));
+                    position += length;
+                }
+                compacted.force(false);
+                // 通道跟随文件本身而不是路径，替换后继续有效
+                Files.move(target.toPath(), new File(dir, LOG_FILE).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                compacted.close();
+                target.delete();
+                throw e;
+            }
+            channel.close();
+            channel = compacted;
+            index.putAll(moved);
+            end = position;
+            liveBytes = position;
+            LOG.info("KV compacted: " + before + " -> " + position + " bytes, " + index.size() + " keys");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 第一次访问时打开日志文件并建立索引
+     */
+    private void ensureOpen() throws IOException {
+        lock.readLock().lock();
+        try {
+            if (channel != null) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            if (channel != null) return;
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create " + dir);
+            }
+            new File(dir, COMPACT_FILE).delete(); // 上次压缩没有完成
+            long start = System.nanoTime();
+            FileChannel opened = FileChannel.open(new File(dir, LOG_FILE).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                scan(opened);
+            } catch (IOException e) {
+                opened.close();
+                throw e;
+            }
+            channel = opened;
+            LOG.info("KV opened: " + index.size() + " keys, " + end + " bytes in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 顺序读出所有记录头和键，建立索引（值只跳过，不读取）
+     * 遇到不完整或无法识别的记录时，从这里截断文件
+     */
+    private void scan(FileChannel file) throws IOException {
+        long size = file.size();
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_BYTES);
+        long bufferStart = 0; // buffer中第一个字节在文件中的偏移
+        buffer.limit(0);
+        long position = 0;
+        Location last = null;
+        String lastKey = null;
+        Location lastReplaced = null; // 最后一条记录覆盖或删除的记录
+        while (position + HEADER_BYTES <= size) {
+            // 保证记录头在buffer中
+            if (position < bufferStart || position + HEADER_BYTES > bufferStart + buffer.limit()) {
+                bufferStart = position;
+                fill(file, buffer, position, size);
+            }
+            buffer.position((int) (position - bufferStart));
+            byte type = buffer.get();
+            int keyLength = buffer.getInt();
+            int valueLength = buffer.getInt();
+            int crc = buffer.getInt();
+            if (type < TYPE_TEXT || type > TYPE_DELETE || keyLength <= 0 || keyLength > MAX_KEY_BYTES
+                    || valueLength < 0 || valueLength > MAX_VALUE_BYTES
+                    || position + HEADER_BYTES + keyLength + valueLength > size) {
+                break;
+            }
+            long keyStart = position + HEADER_BYTES;
+            if (keyStart + keyLength > bufferStart + buffer.limit()) {
+                bufferStart = keyStart;
+                fill(file, buffer, keyStart, size);
+            }
+            byte[] keyBytes = new byte[keyLength];
+            buffer.position((int) (keyStart - bufferStart));
+            buffer.get(keyBytes);
+            String key = new String(keyBytes, StandardCharsets.UTF_8);
+
+            Location location = new Location(position, keyLength, valueLength, crc, type == TYPE_TEXT);
+            Location old = type == TYPE_DELETE ? index.remove(key) : index.put(key, location);
+            if (old != null) liveBytes -= old.recordLength();
+            if (type != TYPE_DELETE) liveBytes += location.recordLength();
+            last = location;
+            lastKey = key;
+            lastReplaced = old;
+            position += location.recordLength();
+        }
+
+        // 只有最后一条记录可能写了一半：单独校验它的内容
+        if (last != null && !checkRecord(file, last, lastKey)) {
+            LOG.warning("KV dropping torn record at " + last.offset);
+            // 撤销这条记录：键恢复到它之前的值
+            if (index.get(lastKey) == last) {
+                index.remove(lastKey);
+                liveBytes -= last.recordLength();
+            }
+            if (lastReplaced != null) {
+                index.put(lastKey, lastReplaced);
+                liveBytes += lastReplaced.recordLength();
+            }
+            position = last.offset;
+        }
+        if (position < size) {
+            LOG.warning("KV truncating log from " + size + " to " + position + " bytes");
+            file.truncate(position);
+        }
+        end = position;
+    }
+
+    private static boolean checkRecord(FileChannel file, Location location, String key) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(location.valueLength);
+        readFully(file, value, location.valueOffset());
+        CRC32 crc = new CRC32();
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        crc.update(value.array());
+        return (int) crc.getValue() == location.crc;
+    }
+
+    /**
+     * 从position开始尽量填满buffer（不超过文件末尾），之后buffer的limit是读到的字节数
+     */
+    private static void fill(FileChannel file, ByteBuffer buffer, long position, long size) throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), size - position));
+        readFully(file, buffer, position);
+        buffer.flip();
+    }
+
+    private static void readFully(FileChannel file, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = file.read(buffer, position);
+            if (n < 0) throw new EOFException("Unexpected end of KV log at " + position);
+            position += n;
+        }
+    }
+
+    private static void writeFully(FileChannel file, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += file.write(buffer, position);
+        }
+    }
+
+    private static Map<String, String> noStore() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        return headers;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.manual;
+
+/**
+ * /__metrics 输出中的一个统计字段 (纯Java，无Android依赖)
+ *
+ * 请求统计以外的功能（异步响应体队列、预取、渲染进程恢复、全屏过渡、冷启动时间点）各自实现这个接口，
+ * 通过 AssetMetrics.section 登记，输出时作为顶层JSON对象中以登记名称命名的字段
+ */
+public interface MetricsSection {
+
+    /**
+     * 输出本字段的JSON值
+     */
+    void appendJson(StringBuilder sb);
+
+    /**
+     * 清零累计的计数（/__metrics?reset 时调用），不是累计值的可以保留
+     */
+    void reset();
+}
@@ -0,0 +1,165 @@
+package com.example.manual;
+
+/**
+ * MIME类型表 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 根据文件扩展名映射到对应的MIME类型
+ * 运行时的 AssetResourceLoader 和打包工具 tools/AssetPacker 共用同一张表，
+ * 保证打包时写入资源索引的MIME类型与运行时的兜底判断一致
+ *
+ * 查找时直接用 String.regionMatches 比较路径末尾的扩展名，不截取子串，不产生任何分配
+ */
+public final class MimeTypes {
+
+    /** 无法识别扩展名时使用的默认类型 */
+    public static final String DEFAULT = "application/octet-stream";
+
+    /** 文本类型使用的字符集 */
+    public static final String TEXT_CHARSET = "UTF-8";
+
+    // 资源类别，用于按类型统计请求（见 AssetMetrics）
+    public static final int CATEGORY_DOCUMENT = 0;
+    public static final int CATEGORY_SCRIPT = 1;
+    public static final int CATEGORY_STYLE = 2;
+    public static final int CATEGORY_FONT = 3;
+    public static final int CATEGORY_IMAGE = 4;
+    public static final int CATEGORY_MEDIA = 5;
+    public static final int CATEGORY_DATA = 6;
+    public static final int CATEGORY_WASM = 7;
+    public static final int CATEGORY_OTHER = 8;
+    public static final int CATEGORY_COUNT = 9;
+
+    /** 与 CATEGORY_* 常量一一对应的名称 */
+    public static final String[] CATEGORY_NAMES = {
+        "document", "script", "style", "font", "image", "media", "data", "wasm", "other",
+    };
+
+    // 扩展名（小写）与MIME类型一一对应
+    private static final String[] EXTENSIONS = {
+        // 文档与脚本
+        "html", "htm", "css", "js", "mjs", "cjs", "json", "map", "webmanifest", "xml", "txt", "csv", "md", "vtt",
+        "wasm", "pdf",
+        // 图片
+        "png", "jpg", "jpeg", "gif", "webp", "avif", "svg", "ico", "bmp", "apng",
+        // 字体
+        "woff", "woff2", "ttf", "otf", "eot",
+        // 音视频
+        "mp4", "m4v", "webm", "ogv", "mov", "mp3", "m4a", "aac", "oga", "ogg", "opus", "wav", "flac",
+        "m3u8", "ts",
+        // 3D模型与压缩包
+        "glb", "gltf", "zip", "gz", "br",
+    };
+    private static final String[] TYPES = {
+        "text/html", "text/html", "text/css", "application/javascript", "application/javascript",
+        "application/javascript", "application/json", "application/json", "application/manifest+json",
+        "application/xml", "text/plain", "text/csv", "text/markdown", "text/vtt",
+        "application/wasm", "application/pdf",
+        "image/png", "image/jpeg", "image/jpeg", "image/gif", "image/webp", "image/avif", "image/svg+xml",
+        "image/x-icon", "image/bmp", "image/apng",
+        "font/woff", "font/woff2", "font/ttf", "font/otf", "application/vnd.ms-fontobject",
+        "video/mp4", "video/mp4", "video/webm", "video/ogg", "video/quicktime", "audio/mpeg", "audio/mp4",
+        "audio/aac", "audio/ogg", "audio/ogg", "audio/opus", "audio/wav", "audio/flac",
+        "application/vnd.apple.mpegurl", "video/mp2t",
+        "model/gltf-binary", "model/gltf+json", "application/zip", "application/gzip", "application/x-brotli",
+    };
+
+    private MimeTypes() {
+    }
+
+    /**
+     * 根据文件路径获取MIME类型（扩展名不区分大小写）
+     *
+     * @param path 文件URL路径或assets路径
+     * @return MIME类型字符串，如果无法识别则返回"application/octet-stream"
+     */
+    public static String fromPath(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot <= path.lastIndexOf('/')) {
+            return DEFAULT; // 没有扩展名
+        }
+        int start = dot + 1;
+        int length = path.length() - start;
+        for (int i = 0; i < EXTENSIONS.length; i++) {
+            String ext = EXTENSIONS[i];
+            if (ext.length() == length && path.regionMatches(true, start, ext, 0, length)) {
+                return TYPES[i];
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * 获取资源类别
+     *
+     * @param mimeType MIME类型
+     * @return CATEGORY_* 常量
+     */
+    public static int categoryOf(String mimeType) {
+        if (mimeType.equals("text/html")) return CATEGORY_DOCUMENT;
+        if (mimeType.equals("application/javascript")) return CATEGORY_SCRIPT;
+        if (mimeType.equals("text/css")) return CATEGORY_STYLE;
+        if (mimeType.equals("application/wasm")) return CATEGORY_WASM;
+        if (mimeType.startsWith("font/") || mimeType.equals("application/vnd.ms-fontobject")) return CATEGORY_FONT;
+        if (mimeType.startsWith("image/")) return CATEGORY_IMAGE;
+        if (mimeType.startsWith("video/") || mimeType.startsWith("audio/")
+                || mimeType.equals("application/vnd.apple.mpegurl")) return CATEGORY_MEDIA;
+        if (mimeType.equals("application/json") || mimeType.equals("application/manifest+json")
+                || mimeType.equals("application/xml") || mimeType.startsWith("text/")) return CATEGORY_DATA;
+        return CATEGORY_OTHER;
+    }
+
+    /**
+     * 获取响应应使用的字符集
+     * 只有文本类型才设置字符集，二进制内容（图片、wasm、音视频等）返回null
+     *
+     * @param mimeType MIME类型
+     * @return "UTF-8" 或 null
+     */
+    public static String charsetFor(String mimeType) {
+        if (mimeType.startsWith("text/")) {
+            return TEXT_CHARSET;
+        }
+        switch (mimeType) {
+            case "application/javascript":
+            case "application/json":
+            case "application/manifest+json":
+            case "application/xml":
+            case "image/svg+xml":
+            case "model/gltf+json":
+                return TEXT_CHARSET;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 判断该类型的内容本身是否已经压缩过（图片、字体、音视频、压缩包等）
+     * 打包时这类文件以不压缩（STORED）方式写入APK：再压一次几乎不省空间，
+     * 而且只有未压缩的条目才能用 AssetManager.openFd 按偏移直接读取
+     *
+     * @param mimeType MIME类型
+     * @return 已压缩的格式返回true
+     */
+    public static boolean isPrecompressed(String mimeType) {
+        if (mimeType.startsWith("video/") || mimeType.startsWith("audio/")) {
+            return true;
+        }
+        if (mimeType.startsWith("image/")) {
+            // svg 是文本，ico/bmp 基本是未压缩的位图，它们的压缩效果都很好
+            return !mimeType.equals("image/svg+xml") && !mimeType.equals("image/x-icon")
+                && !mimeType.equals("image/bmp");
+        }
+        switch (mimeType) {
+            case "font/woff":
+            case "font/woff2":
+            case "model/gltf-binary":
+            case "application/zip":
+            case "application/gzip":
+            case "application/x-brotli":
+                return true;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.manual;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 页面状态快照 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 渲染进程崩溃或被系统杀死后，MainActivity 会原地换一个新的WebView并恢复导航历史（saveState/restoreState），
+ * 但页面自己的内存状态（滚动位置、未提交的表单、当前打开的文档等）随渲染进程一起丢失
+ * 页面可以随时把自己的状态快照交给这里保存（渲染进程之外），恢复后的页面再取回
+ *
+ * 保留地址 /__state（只读）：
+ *   GET /__state                 返回JSON：
+ *                                  {"snapshot":"<页面保存的文本>"或null,
+ *                                   "recoveries":<本次进程内恢复的次数>,
+ *                                   "lastRecovery":{"reason":"crash"/"killed","restoreMillis":<恢复耗时，未完成为-1>}或null}
+ *
+ * 保存和清除经过消息通道（见 ChannelClientScript），请求体没有URL长度的限制：
+ *   state.save    保存快照（文本），超过上限时请求失败
+ *   state.clear   清除快照
+ *
+ * 页面示例：
+ *   // 状态发生重要变化时、以及 visibilitychange 变为 hidden 时（切到后台后最容易被杀）保存
+ *   nativeChannel.request('state.save', JSON.stringify(state));
+ *   // 启动时取回
+ *   const { snapshot } = await (await fetch('/__state')).json();
+ *
+ * 快照在内存中保留一份，同时写入 KvStore（键为 KV_KEY）；
+ * 应用进程被杀后重建Activity时，savedInstanceState 中只记录"有快照"这一标记（见 hasSnapshot），
+ * 快照本身在第一次读取时从 KvStore 取回，不会放进Bundle（Bundle过大会导致 TransactionTooLargeException）
+ */
+public final class PageStateStore {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /** 保留地址，dist中不应有同名文件 */
+    public static final String PATH = "/__state";
+
+    /** 快照在 KvStore 中的键 */
+    public static final String KV_KEY = "__state/snapshot";
+
+    /** 快照的字符数上限 */
+    public static final int MAX_SNAPSHOT_CHARS = 256 * 1024;
+
+    public static final String REASON_CRASH = "crash"; // 渲染进程崩溃
+    public static final String REASON_KILLED = "killed"; // 渲染进程被系统回收
+
+    private final KvStore kv;
+
+    private String snapshot; // 页面保存的快照，没有时为null（受this保护，下同）
+    private boolean restorePending; // 快照还在 KvStore 中，第一次读取时取回
+    private int recoveries;
+    private String lastReason;
+    private long lastRestoreMillis = -1;
+
+    /**
+     * @param kv 快照的持久化位置
+     */
+    public PageStateStore(KvStore kv) {
+        this.kv = kv;
+    }
+
+    /**
+     * 读取快照，需要从 KvStore 取回时会读文件，不要在主线程调用
+     *
+     * @return 页面保存的快照，没有时返回null
+     */
+    public synchronized String snapshot() {
+        if (restorePending) {
+            restorePending = false;
+            try {
+                KvStore.Value value = kv.get(KV_KEY);
+                snapshot = value != null ? value.string() : null;
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Cannot restore page snapshot", e);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * @return 是否有快照（不读文件，可以在主线程调用）
+     */
+    public synchronized boolean hasSnapshot() {
+        return snapshot != null || restorePending;
+    }
+
+    /**
+     * 保存快照，同时写入 KvStore
+     *
+     * @param text 快照文本
+     * @throws IllegalArgumentException 超过 MAX_SNAPSHOT_CHARS
+     */
+    public void save(String text) throws IOException {
+        if (text.length() > MAX_SNAPSHOT_CHARS) {
+            throw new IllegalArgumentException("Snapshot too large: " + text.length() + " chars");
+        }
+        synchronized (this) {
+            snapshot = text;
+            restorePending = false;
+            kv.put(KV_KEY, text);
+        }
+    }
+
+    /**
+     * 清除快照，同时从 KvStore 删除
+     */
+    public void clear() throws IOException {
+        synchronized (this) {
+            snapshot = null;
+            restorePending = false;
+            kv.delete(KV_KEY);
+        }
+    }
+
+    /**
+     * Activity重建时调用（savedInstanceState 中记录了有快照）：内存中没有快照时，在第一次读取时从 KvStore 取回
+     */
+    public synchronized void restoreOnDemand() {
+        if (snapshot == null) {
+            restorePending = true;
+        }
+    }
+
+    /**
+     * 丢弃快照（恢复陷入循环时，快照本身可能就是问题所在）
+     * 只清除内存，不读写文件；之后 hasSnapshot 返回false，KvStore 中的旧快照不会再被取回
+     */
+    public synchronized void discard() {
+        snapshot = null;
+        restorePending = false;
+    }
+
+    /**
+     * 记录一次渲染进程恢复开始
+     *
+     * @param reason REASON_CRASH 或 REASON_KILLED
+     */
+    public synchronized void recoveryStarted(String reason) {
+        recoveries++;
+        lastReason = reason;
+        lastRestoreMillis = -1;
+    }
+
+    /**
+     * 记录恢复完成（新WebView的页面加载完成）
+     *
+     * @param millis 从开始重建WebView到页面加载完成的毫秒数
+     */
+    public synchronized void recoveryFinished(long millis) {
+        lastRestoreMillis = millis;
+    }
+
+    /**
+     * 处理 /__state 请求（只读，查询串被忽略）
+     *
+     * @return 响应，不会返回null
+     */
+    public AssetResponse serve() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"snapshot\":");
+        String current = snapshot();
+        if (current == null) {
+            sb.append("null");
+        } else {
+            Json.appendString(sb, current);
+        }
+        synchronized (this) {
+            sb.append(",\"recoveries\":").append(recoveries);
+            sb.append(",\"lastRecovery\":");
+            if (lastReason == null) {
+                sb.append("null");
+            } else {
+                sb.append("{\"reason\":\"").append(lastReason)
+                    .append("\",\"restoreMillis\":").append(lastRestoreMillis).append('}');
+            }
+        }
+        sb.append('}');
+        byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        return new AssetResponse(200, "OK", "application/json", "UTF-8", headers,
+            new ByteArrayInputStream(json), json.length);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.manual;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 依赖预取（Prefetcher）的统计 (纯Java，无Android依赖)
+ *
+ * 统计提交、读入缓存（次数和字节数）、被页面请求等待（join）、队列满放弃和因内存紧张取消的次数
+ * 在 /__metrics 的 "prefetch" 字段中输出
+ */
+final class PrefetchMetrics implements MetricsSection {
+
+    private final AtomicLong issued = new AtomicLong();
+    private final AtomicLong loaded = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong joined = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /** 预取任务已提交 */
+    void issued() {
+        issued.incrementAndGet();
+    }
+
+    /** 预取完成并写入缓存 */
+    void loaded(long size) {
+        loaded.incrementAndGet();
+        bytes.addAndGet(size);
+    }
+
+    /** 页面请求到达时文件正在预取，请求线程等待预取的结果而没有重复读取 */
+    void joined() {
+        joined.incrementAndGet();
+    }
+
+    /** 预取队列已满，放弃预取 */
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    /** 预取因内存紧张被取消 */
+    void cancelled(int count) {
+        cancelled.addAndGet(count);
+    }
+
+    @Override
+    public void appendJson(StringBuilder sb) {
+        sb.append("{\"issued\":").append(issued.get())
+            .append(",\"loaded\":").append(loaded.get())
+            .append(",\"bytes\":").append(bytes.get())
+            .append(",\"joined\":").append(joined.get())
+            .append(",\"dropped\":").append(dropped.get())
+            .append(",\"cancelled\":").append(cancelled.get()).append('}');
+    }
+
+    @Override
+    public void reset() {
+        issued.set(0);
+        loaded.set(0);
+        bytes.set(0);
+        joined.set(0);
+        dropped.set(0);
+        cancelled.set(0);
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.manual;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 按依赖关系在后台预取资源 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 页面加载 index.html 之后几毫秒内就会请求它引用的脚本、样式和字体，每个请求都要单独从APK读取一次，
+ * 而且要等HTML解析到对应的标签才会发出，形成一级一级的请求瀑布
+ * AssetServer 返回一个带有依赖的文件（依赖关系由打包工具写入索引）时，把它的直接依赖交给这里，
+ * 由少量后台线程并行读入 AssetCache，页面的请求到达时直接命中缓存；
+ * 脚本、样式被请求时再预取它们自己的依赖（分块、字体等），整个瀑布变成逐级提前的并行预热
+ *
+ * 并发和资源控制：
+ * - 同时读取的文件数等于线程数，排队的任务数有上限，超过时直接放弃（预取只是优化，不影响正确性）
+ * - 同一个文件正在排队或读取时不会重复提交；已经在缓存中的文件在提交前由调用方跳过
+ * - 页面请求到达时文件正在被预取，请求线程等待这次读取完成（join），不会同时再读一遍；
+ *   还在排队、没有开始读取的文件由请求线程自己读取，排队的任务随后发现已经缓存而跳过
+ * - 系统内存紧张时调用 cancel()：丢弃所有排队的任务，正在读取的任务读完后不再写入缓存
+ */
+public final class Prefetcher {
+    private static final Logger LOG = Logger.getLogger("WebViewDebug");
+
+    /**
+     * 读取文件完整内容的方法，在线程池中执行
+     */
+    public interface Loader {
+        byte[] load() throws IOException;
+    }
+
+    private final AssetCache cache;
+    private final PrefetchMetrics metrics; // 预取统计，为null时不统计
+    private final ThreadPoolExecutor executor;
+    // 正在排队或读取的任务，以缓存键（资源路径）为键，用于去重和 join
+    private final ConcurrentHashMap<String, Task> pending = new ConcurrentHashMap<>();
+    // 每次 cancel() 加一，任务提交时记下当时的值，不一致说明已经被取消
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * @param cache 预取结果写入的缓存
+     * @param threads 同时读取的文件数上限
+     * @param maxQueued 排队任务数上限，超过时放弃新的预取
+     * @param metrics 请求统计，预取统计登记为其中的 "prefetch" 字段；传null表示不统计
+     */
+    public Prefetcher(AssetCache cache, int threads, int maxQueued, AssetMetrics metrics) {
+        this.cache = cache;
+        this.metrics = metrics != null ? metrics.section("prefetch", PrefetchMetrics::new) : null;
+        ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "asset-prefetch-" + count.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1); // 低于WebView的IO线程，不与正在进行的请求争抢
+                return t;
+            }
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<Runnable>(maxQueued), factory);
+        this.executor.allowCoreThreadTimeOut(true); // 空闲时不保留线程
+    }
+
+    /**
+     * 提交一个预取任务
+     *
+     * @param key 缓存键（资源路径）
+     * @param loader 读取文件完整内容的方法
+     * @return 是否已提交；同一个文件已经在排队或读取、或者队列已满时返回false
+     */
+    public boolean prefetch(String key, Loader loader) {
+        Task task = new Task(key, loader, generation.get());
+        if (pending.putIfAbsent(key, task) != null) {
+            return false;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 队列已满或已经停止
+            pending.remove(key, task);
+            if (metrics != null) metrics.dropped();
+            return false;
+        }
+        if (metrics != null) metrics.issued();
+        return true;
+    }
+
+    /**
+     * 等待正在读取的同一个文件
+     * 只等待已经开始读取的任务；还在排队的任务不等待，由调用方自己读取
+     *
+     * @param key 缓存键（资源路径）
+     * @return 读取到的完整内容；没有正在读取的任务、读取失败或已取消时返回null
+     */
+    public byte[] join(String key) {
+        Task task = pending.get(key);
+        if (task == null || !task.started.get()) {
+            return null;
+        }
+        byte[] data = task.await();
+        if (data != null && metrics != null) metrics.joined();
+        return data;
+    }
+
+    /**
+     * 取消所有预取：排队的任务直接丢弃，正在读取的任务读完后不写入缓存
+     * 在系统内存紧张时调用，之后提交的预取不受影响
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+        List<Runnable> dropped = new ArrayList<>();
+        executor.getQueue().drainTo(dropped);
+        for (Runnable r : dropped) {
+            Task task = (Task) r;
+            pending.remove(task.key, task);
+        }
+        if (metrics != null && !dropped.isEmpty()) metrics.cancelled(dropped.size());
+    }
+
+    /** @return 正在排队或读取的任务数 */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 停止线程池，排队的任务丢弃
+     */
+    public void shutdown() {
+        cancel();
+        executor.shutdown();
+    }
+
+    /**
+     * 单个文件的预取任务
+     */
+    private final class Task implements Runnable {
+        final String key;
+        final Loader loader;
+        final int generation;
+        final AtomicBoolean started = new AtomicBoolean();
+        private boolean done; // 受this保护
+        private byte[] result; // 受this保护
+
+        Task(String key, Loader loader, int generation) {
+            this.key = key;
+            this.loader = loader;
+            this.generation = generation;
+        }
+
+        @Override
+        public void run() {
+            byte[] data = null;
+            try {
+                // 排队期间页面可能已经自己读过，或者预取已被取消
+                if (generation != Prefetcher.this.generation.get() || cache.get(key) != null) {
+                    return;
+                }
+                started.set(true);
+                data = loader.load();
+                if (generation != Prefetcher.this.generation.get()) {
+                    if (metrics != null) metrics.cancelled(1);
+                    data = null; // 读取期间被取消，内存紧张时不再写入缓存
+                    return;
+                }
+                cache.put(key, data);
+                if (metrics != null) metrics.loaded(data.length);
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Prefetch failed: " + key, e);
+            } finally {
+                pending.remove(key, this);
+                synchronized (this) {
+                    result = data;
+                    done = true;
+                    notifyAll();
+                }
+            }
+        }
+
+        synchronized byte[] await() {
+            boolean interrupted = false;
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.manual;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 异步响应体（AsyncStreamer）的队列统计 (纯Java，无Android依赖)
+ *
+ * 统计当前和最大排队数、队列满时同步打开的次数、开始打开前已被页面取消的次数、打开失败的次数，
+ * 以及按资源类别统计的排队等待时间（按微秒的对数分桶，同 AssetMetrics 的请求耗时），用于调整线程数和首屏延迟
+ * 在 /__metrics 的 "queue" 字段中输出
+ */
+final class QueueMetrics implements MetricsSection {
+
+    private final AtomicLongArray waits = new AtomicLongArray(MimeTypes.CATEGORY_COUNT);
+    private final AtomicLongArray waitMicros = new AtomicLongArray(MimeTypes.CATEGORY_COUNT);
+    private final AtomicLongArray maxWaitMicros = new AtomicLongArray(MimeTypes.CATEGORY_COUNT);
+    private final AtomicLongArray histogram = new AtomicLongArray(MimeTypes.CATEGORY_COUNT * AssetMetrics.BUCKETS);
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong maxDepth = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 异步响应体进入队列
+     */
+    void enter() {
+        long current = depth.incrementAndGet();
+        long max;
+        while (current > (max = maxDepth.get()) && !maxDepth.compareAndSet(max, current)) {
+            // 其他线程同时更新了最大值，重新比较
+        }
+    }
+
+    /**
+     * 异步响应体离开队列、开始执行
+     *
+     * @param category 资源类别（MimeTypes.CATEGORY_*）
+     * @param waitNanos 在队列中等待的纳秒数
+     */
+    void leave(int category, long waitNanos) {
+        depth.decrementAndGet();
+        long micros = waitNanos / 1000;
+        waits.incrementAndGet(category);
+        waitMicros.addAndGet(category, micros);
+        histogram.incrementAndGet(category * AssetMetrics.BUCKETS + AssetMetrics.bucketOf(micros));
+        AssetMetrics.updateMax(maxWaitMicros, category, micros);
+    }
+
+    /** 队列已满，响应体在拦截线程上同步打开 */
+    void rejected() {
+        rejected.incrementAndGet();
+    }
+
+    /** 开始打开前页面已经关闭了响应体（取消了请求），没有打开文件 */
+    void cancelled() {
+        cancelled.incrementAndGet();
+    }
+
+    /** 文件打开失败，响应体没有交付 */
+    void failed() {
+        failed.incrementAndGet();
+    }
+
+    @Override
+    public void appendJson(StringBuilder sb) {
+        sb.append("{\"depth\":").append(depth.get())
+            .append(",\"maxDepth\":").append(maxDepth.get())
+            .append(",\"rejected\":").append(rejected.get())
+            .append(",\"cancelled\":").append(cancelled.get())
+            .append(",\"failed\":").append(failed.get())
+            .append(",\"waits\":{");
+        boolean first = true;
+        for (int category = 0; category < MimeTypes.CATEGORY_COUNT; category++) {
+            long count = waits.get(category);
+            if (count == 0) continue;
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(MimeTypes.CATEGORY_NAMES[category]).append("\":{");
+            sb.append("\"requests\":").append(count);
+            AssetMetrics.appendLatency(sb, histogram, category, waitMicros.get(category) / count,
+                maxWaitMicros.get(category));
+            sb.append('}');
+        }
+        sb.append("}}");
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < MimeTypes.CATEGORY_COUNT; i++) {
+            waits.set(i, 0);
+            waitMicros.set(i, 0);
+            maxWaitMicros.set(i, 0);
+        }
+        for (int i = 0; i < histogram.length(); i++) {
+            histogram.set(i, 0);
+        }
+        maxDepth.set(depth.get()); // 当前排队数不是累计值，不清零
+        rejected.set(0);
+        cancelled.set(0);
+        failed.set(0);
+    }
+}
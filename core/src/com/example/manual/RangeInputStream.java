@@ -0,0 +1,78 @@
+package com.example.manual;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 按偏移读取文件中一段连续字节的输入流 (纯Java，无Android依赖)
+ *
+ * 使用 FileChannel 的定位读（pread），不修改共享的文件指针：
+ * AssetManager.openFd 返回的描述符与APK共用同一个打开的文件，
+ * 多个并发的Range请求如果靠 seek + read 会互相干扰
+ */
+public final class RangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private final Closeable owner; // 流关闭时一起关闭（通常是持有描述符的对象）
+    private long position; // 下一次读取的绝对偏移
+    private long remaining; // 剩余可读字节数
+
+    /**
+     * @param channel 文件通道
+     * @param position 区间在文件中的绝对起始偏移
+     * @param length 区间字节数
+     * @param owner 关闭流时需要一并关闭的资源，可以为null
+     */
+    public RangeInputStream(FileChannel channel, long position, long length, Closeable owner) {
+        this.channel = channel;
+        this.position = position;
+        this.remaining = length;
+        this.owner = owner;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == 1 ? (one[0] & 0xFF) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (remaining <= 0) return -1;
+        if (len == 0) return 0;
+        int want = (int) Math.min(len, remaining);
+        int n = channel.read(ByteBuffer.wrap(b, off, want), position);
+        if (n < 0) {
+            remaining = 0; // 文件比声明的短，提前结束
+            return -1;
+        }
+        position += n;
+        remaining -= n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, remaining));
+        position += skipped;
+        remaining -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    @Override
+    public void close() throws IOException {
+        remaining = 0;
+        if (owner != null) {
+            owner.close();
+        } else {
+            channel.close();
+        }
+    }
+}
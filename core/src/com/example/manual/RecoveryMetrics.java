@@ -0,0 +1,61 @@
+package com.example.manual;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 渲染进程恢复的统计 (纯Java，无Android依赖)
+ *
+ * 统计渲染进程退出的次数（区分崩溃和被系统回收）、恢复完成的次数和恢复耗时
+ * 在 /__metrics 的 "recovery" 字段中输出
+ */
+final class RecoveryMetrics implements MetricsSection {
+
+    private final AtomicLong gone = new AtomicLong();
+    private final AtomicLong crashed = new AtomicLong();
+    private final AtomicLong restored = new AtomicLong();
+    private final AtomicLong restoreTotalMillis = new AtomicLong();
+    private final AtomicLong restoreMaxMillis = new AtomicLong();
+
+    /**
+     * 渲染进程退出，开始恢复
+     *
+     * @param crash true表示崩溃，false表示被系统回收
+     */
+    void rendererGone(boolean crash) {
+        gone.incrementAndGet();
+        if (crash) crashed.incrementAndGet();
+    }
+
+    /**
+     * 恢复完成（新WebView的页面加载完成）
+     *
+     * @param millis 从开始重建WebView到页面加载完成的毫秒数
+     */
+    void rendererRestored(long millis) {
+        restored.incrementAndGet();
+        restoreTotalMillis.addAndGet(millis);
+        long max;
+        while (millis > (max = restoreMaxMillis.get()) && !restoreMaxMillis.compareAndSet(max, millis)) {
+            // 其他线程同时更新了最大值，重新比较
+        }
+    }
+
+    @Override
+    public void appendJson(StringBuilder sb) {
+        long count = restored.get();
+        sb.append("{\"gone\":").append(gone.get())
+            .append(",\"crashed\":").append(crashed.get())
+            .append(",\"restored\":").append(count)
+            .append(",\"avgRestoreMillis\":").append(count == 0 ? 0 : restoreTotalMillis.get() / count)
+            .append(",\"maxRestoreMillis\":").append(restoreMaxMillis.get()).append('}');
+    }
+
+    @Override
+    public void reset() {
+        gone.set(0);
+        crashed.set(0);
+        restored.set(0);
+        restoreTotalMillis.set(0);
+        restoreMaxMillis.set(0);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.manual;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 冷启动时间点记录 (纯Java，无Android依赖)
+ *
+ * 功能说明：
+ * 记录从进程启动到首页加载完成之间的几个关键时间点，用于在真机上跟踪冷启动耗时
+ * 每个时间点只记录第一次（之后的调用直接忽略），记录本身只是一次原子比较，不分配对象
+ *
+ * 时间使用 System.nanoTime() 换算的毫秒数，在Android上与 SystemClock.uptimeMillis() 是同一个时钟，
+ * 因此可以直接与 Process.getStartUptimeMillis() 比较
+ *
+ * 结果在 /__metrics 的 "startup" 字段中输出（各时间点相对进程启动的毫秒数，未发生的为null），
+ * 首页加载完成时也会写一行日志
+ */
+public final class StartupTrace implements MetricsSection {
+
+    public static final int PROCESS_START = 0; // 进程启动（由系统提供）
+    public static final int APP_CREATE = 1; // Application.onCreate 开始
+    public static final int WEBVIEW_PROVIDER_READY = 2; // WebView实现（Chromium）加载完成
+    public static final int PRELOAD_DONE = 3; // 首屏关键资源已读入内存
+    public static final int ACTIVITY_CREATE = 4; // MainActivity.onCreate 开始
+    public static final int WEBVIEW_CREATED = 5; // WebView对象创建完成
+    public static final int LOAD_URL = 6; // 调用 loadUrl
+    public static final int FIRST_INTERCEPT = 7; // 第一次拦截到虚拟域名的请求
+    public static final int PAGE_FINISHED = 8; // 首页 onPageFinished
+    public static final int MARK_COUNT = 9;
+
+    /** 与时间点常量一一对应的名称 */
+    public static final String[] MARK_NAMES = {
+        "processStart", "appCreate", "webViewProviderReady", "preloadDone", "activityCreate",
+        "webViewCreated", "loadUrl", "firstIntercept", "pageFinished"
+    };
+
+    // 各时间点的毫秒数，0表示尚未发生
+    private final AtomicLongArray marks = new AtomicLongArray(MARK_COUNT);
+
+    /**
+     * @param processStartMillis 进程启动时间（与 now() 同一时钟的毫秒数）
+     */
+    public StartupTrace(long processStartMillis) {
+        marks.set(PROCESS_START, processStartMillis);
+    }
+
+    /** @return 当前时间（毫秒），与 SystemClock.uptimeMillis() 同一时钟 */
+    public static long now() {
+        return System.nanoTime() / 1000000;
+    }
+
+    /**
+     * 记录一个时间点，已经记录过的忽略
+     *
+     * @param mark 时间点常量
+     */
+    public void mark(int mark) {
+        if (marks.get(mark) == 0) {
+            marks.compareAndSet(mark, 0, now());
+        }
+    }
+
+    /**
+     * @return 时间点相对进程启动的毫秒数，尚未发生时返回-1
+     */
+    public long elapsed(int mark) {
+        long at = marks.get(mark);
+        return at == 0 ? -1 : at - marks.get(PROCESS_START);
+    }
+
+    /**
+     * 输出JSON对象，如 {"appCreate":85,"webViewProviderReady":240,...}
+     */
+    @Override
+    public void appendJson(StringBuilder sb) {
+        sb.append('{');
+        for (int i = 1; i < MARK_COUNT; i++) {
+            if (i > 1) sb.append(',');
+            long elapsed = elapsed(i);
+            sb.append('"').append(MARK_NAMES[i]).append("\":");
+            if (elapsed < 0) sb.append("null");
+            else sb.append(elapsed);
+        }
+        sb.append('}');
+    }
+
+    /**
+     * 时间点只记录一次，重置统计时保留
+     */
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("startup");
+        for (int i = 1; i < MARK_COUNT; i++) {
+            sb.append(' ').append(MARK_NAMES[i]).append('=').append(elapsed(i));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.manual;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * 从zip文件（通常就是打包好的APK）读取资源 (纯Java，无Android依赖)
+ * 用于在桌面JVM上按APK中真实的压缩方式测量读取开销
+ */
+public final class ZipAssetSource implements AssetSource, Closeable {
+    private final ZipFile zip;
+    private final String prefix; // 条目名前缀，APK中为"assets/"
+
+    /**
+     * @param zip 已打开的zip文件
+     * @param prefix 资源在zip中的路径前缀，如"assets/"
+     */
+    public ZipAssetSource(ZipFile zip, String prefix) {
+        this.zip = zip;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public InputStream open(String assetPath) throws IOException {
+        ZipEntry entry = zip.getEntry(prefix + assetPath);
+        if (entry == null) {
+            throw new FileNotFoundException(assetPath);
+        }
+        return zip.getInputStream(entry);
+    }
+
+    /**
+     * ZipFile 不提供条目的数据偏移，这里只能从头跳过（STORED条目的skip不需要解压，开销很小）
+     */
+    @Override
+    public InputStream openRange(AssetIndex.Entry entry, long start, long length) throws IOException {
+        return AssetSource.skipAndLimit(open(entry.assetPath), start, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        zip.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.manual;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 从APK的assets目录读取资源（AssetManager）
+ */
+class ApkAssetSource implements AssetSource {
+    private final AssetManager assets;
+
+    ApkAssetSource(AssetManager assets) {
+        this.assets = assets;
+    }
+
+    @Override
+    public InputStream open(String assetPath) throws IOException {
+        return assets.open(assetPath, AssetManager.ACCESS_STREAMING);
+    }
+
+    /**
+     * 以不压缩方式存储的资源：通过 openFd 拿到APK文件描述符和条目偏移，直接定位到区间起点读取，
+     * 耗时与拖动位置无关；压缩存储的资源只能解压时跳过前面的字节
+     */
+    @Override
+    public InputStream openRange(AssetIndex.Entry entry, long start, long length) throws IOException {
+        if (entry.stored) {
+            AssetFileDescriptor afd = assets.openFd(entry.assetPath);
+            // createInputStream 返回的流关闭时会同时关闭描述符
+            FileInputStream fis = afd.createInputStream();
+            return new RangeInputStream(fis.getChannel(), afd.getStartOffset() + start, length, fis);
+        }
+        return AssetSource.skipAndLimit(assets.open(entry.assetPath, AssetManager.ACCESS_RANDOM), start, length);
+    }
+}
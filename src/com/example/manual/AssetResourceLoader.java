@@ -0,0 +1,306 @@
+package com.example.manual;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+import android.webkit.WebResourceRequest;
+import android.webkit.WebResourceResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 资源加载器类 (Helper Class)
+ *
+ * 功能说明：
+ * 将网络请求拦截并映射到本地资源文件的逻辑封装在此类中
+ * 通过虚拟域名（如"mypage.test"）拦截请求，从assets目录加载对应的本地文件
+ * 支持WebViewClient和ServiceWorkerClient共用，避免代码重复
+ *
+ * 工作流程：
+ * 1. 检查请求的域名是否匹配虚拟域名
+ * 2. 在启动时加载的资源索引（assets/dist.index）中查找URL路径
+ * 3. 命中则从assets目录打开文件并返回WebResourceResponse，MIME类型直接取自索引
+ * 4. 未命中直接返回预先分配好的404响应，不访问AssetManager，也不产生异常
+ * 5. 请求带有Range头时（媒体播放器拖动进度）返回 206 Partial Content，
+ *    以不压缩方式存储的资源通过 AssetFileDescriptor 的偏移直接定位，不再从头读取并丢弃
+ * 6. 打包时生成了 .br/.gz 预压缩版本的资源，按请求的 Accept-Encoding 选择最合适的版本，
+ *    带上 Content-Encoding 返回，由渲染进程负责解码
+ * 7. 所有响应都带有打包时算好的 ETag 和 Cache-Control，页面和Service Worker可以据此判断内容是否变化
+ *    注意：WebResourceResponse 不允许 3xx 状态码（构造时直接抛出 IllegalArgumentException），
+ *    所以无法对 If-None-Match 返回 304，条件请求仍然返回完整内容（小文件来自内存缓存）
+ * 8. 小文件整体读入共享的内存缓存（AssetCache），之后的请求直接返回缓存字节的视图
+ * 9. 开启统计（AssetMetrics）时记录每个请求的耗时、字节数和来源，
+ *    并在保留地址 /__metrics 输出JSON（加上 ?reset=1 输出后清零）
+ * 10. 开启异步响应体（AsyncStreamer）时立即返回 WebResourceResponse，响应体是等待线程池交付的交接流，
+ *    打开APK中的文件（缓存未命中时整个读入）按资源类别的优先级在专用线程池中进行，不再占住WebView的IO线程
+ * 11. 返回带有依赖的文件（如index.html）时，按打包时生成的依赖关系在后台并行预取它引用的脚本、样式和字体（Prefetcher），
+ *    系统内存紧张时取消所有预取
+ * 12. 用户通过文件选择器选中的文件可以在保留地址 /__files/<令牌> 访问（见 PickedFiles），
+ *    内容直接从 ContentResolver 边读边传并支持Range，页面不必把整个文件读进内存
+ * 13. 保留地址 /__precache.json 输出由资源索引生成的预缓存清单（每个文件的地址、大小和内容哈希），
+ *    Service Worker 据此只更新内容变化的文件
+ * 14. 页面可以通过消息通道保存自己的状态快照，渲染进程崩溃恢复后在保留地址 /__state 取回（见 PageStateStore）
+ * 15. 消息通道（NativeChannel）的页面端脚本在 /__channel.js，通道回复的大块二进制数据在 /__blob/<令牌>（见 BlobStore）
+ * 16. 页面的持久化键值存储（KvStore，代替 localStorage）可以在 /__kv/<键> 直接读取，写入经过消息通道
+ *
+ * 第2~11步的实际处理都在 AssetServer 中（纯Java，可在桌面JVM上做基准测试），
+ * 这里只负责域名判断、从 AssetManager 读取文件（ApkAssetSource），以及把结果转换成 WebResourceResponse
+ *
+ * 如果APK中没有索引文件（旧的打包流程），退回到逐个尝试打开文件的旧逻辑
+ *
+ * 内容包（ContentPack）：
+ * 下载到应用私有目录的内容包可以替代APK中的 assets/dist，更新网页无需重新打包APK
+ * 设置内容包后请求优先在内容包中查找（内存映射，直接返回映射区的切片），内容包中没有的文件退回到APK中查找
+ * 切换内容包只是替换一个引用，正在进行的请求继续读取旧内容包，新请求立即使用新内容包
+ * 新下载的内容包在后台线程校验安装（见 installContentPack）：页面的第一个请求到达之前安装完成时立即切换，
+ * 否则留到下次启动再用，同一次运行中的页面不会混用两个版本的文件
+ */
+class AssetResourceLoader {
+    private static final String TAG = "WebViewDebug";
+
+    // 消息通道回复中等待页面读取的二进制数据总量上限
+    private static final long BLOB_MAX_BYTES = 64 * 1024 * 1024;
+
+    // 键值存储的目录（应用私有目录下）
+    private static final String KV_DIR = "kv";
+
+    private final String virtualDomain; // 虚拟域名（如"mypage.test"）
+    private final String assetBase; // 本地资源基础目录（如"dist"）
+    private final AssetMetrics metrics; // 请求统计，APK和内容包共用
+    private final AssetServer server; // APK中资源的请求处理
+    private final PickedFiles pickedFiles; // 用户选择的文件
+    private final PageStateStore pageState; // 页面状态快照，跨WebView重建保留
+    private final BlobStore blobs = new BlobStore(BLOB_MAX_BYTES); // 消息通道的大块二进制回复
+    private final KvStore kv; // 页面的持久化键值存储，第一次访问时才打开文件
+    private final Prefetcher prefetcher; // 依赖预取，可以为null
+    private final StartupTrace startupTrace; // 冷启动时间点，记录第一个请求到达的时间
+
+    // 内容包的请求处理，没有内容包时为null；整体替换，保证每个请求看到的是同一个内容包
+    private final AtomicReference<AssetServer> packServer = new AtomicReference<>();
+    private final Object packLock = new Object(); // 保证后台安装的内容包要么在第一个请求之前切换，要么不切换
+    private volatile boolean requestSeen; // 第一个请求到达后为true，受packLock保护写入
+
+    /**
+     * 构造函数
+     *
+     * @param context 上下文，用于获取AssetManager、ContentResolver和应用私有目录
+     * @param domain 虚拟域名，用于拦截请求
+     * @param assetBase assets目录下的基础文件夹名称
+     * @param cache 热点资源缓存，传null表示不缓存
+     * @param metrics 请求统计，传null表示不统计（/__metrics 也不可用）
+     * @param streamer 异步响应体，传null表示在拦截线程上同步打开
+     * @param prefetcher 依赖预取，传null表示不预取（cache为null时也不预取）
+     * @param startupTrace 冷启动时间点，传null表示不记录
+     */
+    public AssetResourceLoader(Context context, String domain, String assetBase, AssetCache cache,
+            AssetMetrics metrics, AsyncStreamer streamer, Prefetcher prefetcher, StartupTrace startupTrace) {
+        AssetSource source = new ApkAssetSource(context.getAssets());
+        this.virtualDomain = domain;
+        this.assetBase = assetBase;
+        this.metrics = metrics;
+        this.server = new AssetServer(source, assetBase, loadIndex(source, assetBase), cache, metrics, streamer,
+            prefetcher);
+        this.pickedFiles = new PickedFiles(context.getContentResolver(), domain, streamer);
+        this.kv = new KvStore(new File(context.getFilesDir(), KV_DIR));
+        this.pageState = new PageStateStore(kv);
+        this.prefetcher = prefetcher;
+        this.startupTrace = startupTrace;
+    }
+
+    /**
+     * @return 页面状态快照，渲染进程恢复时由 MainActivity 读写
+     */
+    public PageStateStore pageState() {
+        return pageState;
+    }
+
+    /**
+     * @return 消息通道的大块二进制回复登记处
+     */
+    public BlobStore blobs() {
+        return blobs;
+    }
+
+    /**
+     * @return 页面的持久化键值存储，读写接口在 ManualApp 中注册到消息通道
+     */
+    public KvStore kv() {
+        return kv;
+    }
+
+    /**
+     * 把首屏关键资源（索引中带"p"标志的文件）预先读入内存缓存
+     * 会读取APK中的文件，不要在主线程调用；使用内容包时跳过（内存映射本身就不需要预读）
+     * 此时还不知道页面请求带什么 Accept-Encoding，原始文件和预压缩版本都读入（见 AssetServer.preload(String)）
+     *
+     * @return 读入缓存的字节数
+     */
+    public long preload() {
+        if (packServer.get() != null) return 0;
+        return server.preload();
+    }
+
+    /**
+     * @return 用户选择的文件，文件选择完成后在这里登记
+     */
+    public PickedFiles pickedFiles() {
+        return pickedFiles;
+    }
+
+    /**
+     * 响应系统的内存回收通知
+     * 先取消所有预取（避免刚释放的内存又被预取填满），
+     * 系统内存开始紧张时清空缓存，其余情况只保留一半，缓存随后会按需重新填充
+     *
+     * @param level ComponentCallbacks2.TRIM_MEMORY_* 常量
+     */
+    public void onTrimMemory(int level) {
+        if (prefetcher != null) {
+            prefetcher.cancel();
+        }
+        AssetCache cache = server.cache();
+        if (cache == null) return;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.clear();
+        } else {
+            cache.trimTo(cache.totalBytes() / 2);
+        }
+    }
+
+    /**
+     * 使用已经安装好的内容包（只检查文件头和文件表，开销很小，可以在启动时调用）
+     *
+     * @param file 内容包文件
+     * @return 是否成功；失败时继续使用原来的资源
+     */
+    public boolean useContentPack(File file) {
+        try {
+            swapContentPack(ContentPack.open(file, assetBase));
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Content pack rejected: " + file, e);
+            return false;
+        }
+    }
+
+    /**
+     * 安装新下载的内容包：检查全部内容哈希后移动到正式位置并立即切换
+     * 校验需要读完整个文件，内容包较大时不要在主线程调用
+     * 安装期间继续使用APK中的资源或原来的内容包；安装完成时如果还没有任何请求到达，立即切换，
+     * 否则不切换（已经打开的页面引用的是旧版本的文件），新内容包已经在target位置，下次启动时使用
+     *
+     * @param downloaded 下载完成的临时文件，必须与target在同一目录
+     * @param target 内容包的正式位置
+     * @return 是否安装成功（不论是否立即切换）；失败时保持原来的内容包和文件不变
+     */
+    public boolean installContentPack(File downloaded, File target) {
+        try {
+            ContentPack pack = ContentPack.install(downloaded, target, assetBase);
+            synchronized (packLock) {
+                if (!requestSeen) {
+                    swapContentPack(pack);
+                    return true;
+                }
+            }
+            Log.i(TAG, "Content pack installed, in use from next launch: " + target);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Content pack install failed: " + downloaded, e);
+            return false;
+        }
+    }
+
+    /**
+     * 原子地切换到新的内容包
+     * 旧内容包的映射不需要显式释放：还在读取它的响应结束后，随对象一起被回收
+     * 内容包本身就在内存映射中，不再经过 AssetCache，响应体也只是映射区的切片，不需要交给 AsyncStreamer
+     */
+    private void swapContentPack(ContentPack pack) {
+        AssetServer packed = new AssetServer(pack, assetBase, pack.index(), null, metrics);
+        packed.setFallbackIndex(server.index()); // 内容包中没有的文件由APK提供，预缓存清单同样要列出
+        packServer.set(packed);
+        Log.i(TAG, "Content pack in use: " + pack.file() + " (" + pack.index().size() + " files)");
+    }
+
+    /**
+     * 加载打包时生成的资源索引（assets/<assetBase>.index）
+     *
+     * @return 索引对象，文件不存在或格式不对时返回null
+     */
+    private static AssetIndex loadIndex(AssetSource source, String assetBase) {
+        try {
+            AssetIndex loaded = AssetServer.readIndex(source, assetBase);
+            Log.i(TAG, "Asset index loaded: " + loaded.size() + " files");
+            return loaded;
+        } catch (IOException e) {
+            Log.w(TAG, "Asset index unavailable, falling back to AssetManager lookups", e);
+            return null;
+        }
+    }
+
+    /**
+     * 统一的拦截入口
+     *
+     * @param request WebView发出的请求（包含URL和请求头）
+     * @param client 请求来源，AssetMetrics.CLIENT_PAGE 或 AssetMetrics.CLIENT_SERVICE_WORKER
+     * @return WebResourceResponse 如果匹配虚拟域名则返回本地资源，否则返回null走默认网络逻辑
+     */
+    public WebResourceResponse shouldIntercept(WebResourceRequest request, int client) {
+        Uri url = request.getUrl();
+        // 仅仅拦截我们的虚拟域名，其他域名走默认网络逻辑
+        // 注意：因为虚拟域名不存在，其他请求走网络会失败，但这是预期的行为
+        if (!virtualDomain.equals(url.getHost())) {
+            return null;
+        }
+        if (startupTrace != null) {
+            startupTrace.mark(StartupTrace.FIRST_INTERCEPT); // 只有第一次调用生效
+        }
+        if (!requestSeen) {
+            synchronized (packLock) {
+                requestSeen = true; // 之后后台安装的内容包不再切换
+            }
+        }
+        String path = url.getPath();
+        if (path != null && path.startsWith(PickedFiles.PATH_PREFIX)) {
+            return toWebResponse(servePickedFile(request, path, client));
+        }
+        if (PageStateStore.PATH.equals(path)) {
+            return toWebResponse(pageState.serve());
+        }
+        if (path != null && path.startsWith(BlobStore.PATH_PREFIX)) {
+            return toWebResponse(blobs.serve(path));
+        }
+        if (path != null && path.startsWith(KvStore.PATH_PREFIX)) {
+            return toWebResponse(kv.serve(path));
+        }
+        if (ChannelClientScript.PATH.equals(path)) {
+            return toWebResponse(ChannelClientScript.serve());
+        }
+        // 每个请求只读一次引用，同一个请求不会混用新旧两个内容包
+        AssetServer pack = packServer.get();
+        // 预缓存清单描述的是正在使用的那一份网页资源：有内容包时由内容包生成（合并APK中内容包没有的文件）
+        AssetServer target = pack != null
+            && (pack.index().find(path) != null || AssetServer.PRECACHE_PATH.equals(path)) ? pack : server;
+        return toWebResponse(target.serve(path, url.getEncodedQuery(), request.getRequestHeaders(), client));
+    }
+
+    /**
+     * 处理 /__files/ 下的请求，开启统计时同样记录耗时和字节数
+     */
+    private AssetResponse servePickedFile(WebResourceRequest request, String path, int client) {
+        long start = System.nanoTime();
+        AssetResponse response = pickedFiles.serve(path, AssetServer.header(request.getRequestHeaders(), "Range"));
+        if (metrics != null) {
+            metrics.record(client, MimeTypes.categoryOf(response.mimeType), Math.max(0, response.contentLength),
+                System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    private static WebResourceResponse toWebResponse(AssetResponse r) {
+        return new WebResourceResponse(r.mimeType, r.charset, r.status, r.reason, r.headers, r.body);
+    }
+}
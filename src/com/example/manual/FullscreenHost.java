@@ -0,0 +1,300 @@
+package com.example.manual;
+
+import android.app.Activity;
+import android.content.pm.ActivityInfo;
+import android.os.Build;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
+import android.view.WindowInsets;
+import android.view.WindowInsetsController;
+import android.view.WindowManager;
+import android.webkit.WebChromeClient;
+import android.widget.FrameLayout;
+
+/**
+ * 全屏内容（如视频全屏播放）的宿主 (Helper Class)
+ *
+ * 功能说明：
+ * WebChromeClient.onShowCustomView 交来的全屏视图放在这里显示，退出时交还
+ * 以前每次进入全屏都新建一个容器加入DecorView、退出时再移除，中端机型上旋转过程中明显掉帧并闪黑屏，这里：
+ * 1. 容器只创建一次并一直挂在DecorView上，平时是 GONE（不参与测量、布局和绘制，没有开销），
+ *    进入和退出只切换可见性，不再增删容器
+ * 2. 进入时按 隐藏系统栏 → 请求横屏 → 显示容器 的顺序在同一个消息中完成：
+ *    视图的布局请求合并到下一帧，系统栏和旋转由窗口管理器一起应用，只产生一次布局，
+ *    而不是先按系统栏变化布局一次、旋转后再布局一次；退出时按相反的顺序
+ * 3. 进入的过渡期间容器使用硬件层（LAYER_TYPE_HARDWARE），旋转动画直接合成层的内容，不必每帧重绘容器的子视图；
+ *    过渡结束后立即取消，视频每帧都在更新，一直保留硬件层反而多一次合成
+ *
+ * 帧耗时统计：
+ * 每次进入和退出时用 Choreographer 逐帧记录帧间隔，同时记录窗口中的布局次数，
+ * 连续 SETTLE_FRAMES 帧没有新的布局后视为过渡结束，输出过渡耗时、帧数、掉帧数（按屏幕刷新周期计）、最长的一帧和布局次数：
+ * 写入日志，开启统计时同时计入 /__metrics 的 "fullscreen" 字段（见 FullscreenMetrics）
+ * 正常情况下过渡应在一两帧内完成，布局次数应为1
+ */
+class FullscreenHost {
+    private static final String TAG = "WebViewDebug";
+
+    private static final int SETTLE_FRAMES = 3; // 连续这么多帧没有布局，视为过渡结束
+    private static final long MAX_TRANSITION_MILLIS = 2000; // 超过这个时间仍未稳定时强制结束统计
+
+    private final Activity activity;
+    private final FullscreenMetrics metrics; // 过渡统计，未开启统计时为null
+    private final FrameLayout container; // 全屏视图的容器，只创建一次
+    private final int originalOrientation; // 进入全屏前的屏幕方向，退出全屏时恢复
+
+    private View customView; // 当前的全屏视图，不在全屏时为null
+    private WebChromeClient.CustomViewCallback customViewCallback; // 通知WebView全屏已关闭
+    private Transition transition; // 正在统计的过渡，没有时为null
+
+    /**
+     * 创建容器并加入DecorView（在 setContentView 之后调用，容器才会在页面之上）
+     *
+     * @param activity 所在的Activity
+     * @param metrics 请求统计，过渡统计登记为其中的 "fullscreen" 字段；传null表示只写日志
+     */
+    public FullscreenHost(Activity activity, AssetMetrics metrics) {
+        this.activity = activity;
+        this.metrics = metrics != null ? metrics.section("fullscreen", FullscreenMetrics::new) : null;
+        this.originalOrientation = activity.getRequestedOrientation();
+        container = new FrameLayout(activity);
+        container.setLayoutParams(new ViewGroup.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT,
+            ViewGroup.LayoutParams.MATCH_PARENT));
+        container.setBackgroundColor(0xFF000000); // 黑色背景
+        container.setVisibility(View.GONE);
+        ((ViewGroup) activity.getWindow().getDecorView()).addView(container);
+    }
+
+    /** @return 当前是否在全屏 */
+    public boolean isShowing() {
+        return customView != null;
+    }
+
+    /**
+     * 进入全屏（WebChromeClient.onShowCustomView）
+     * 已经在全屏时退出全屏，新的请求不再显示（防止重复全屏）
+     */
+    public void show(View view, WebChromeClient.CustomViewCallback callback) {
+        if (customView != null) {
+            hide();
+            callback.onCustomViewHidden();
+            return;
+        }
+        customView = view;
+        customViewCallback = callback;
+        startTransition(true);
+
+        container.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        container.addView(view, new ViewGroup.LayoutParams(
+            ViewGroup.LayoutParams.MATCH_PARENT,
+            ViewGroup.LayoutParams.MATCH_PARENT));
+        // 以下三步之间不能让出主线程，否则会分成多次布局
+        hideSystemUI();
+        // 横屏，允许根据设备方向自动旋转（支持正反横屏）
+        activity.setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_SENSOR_LANDSCAPE);
+        container.setVisibility(View.VISIBLE);
+    }
+
+    /**
+     * 退出全屏（WebChromeClient.onHideCustomView、返回键、Activity销毁时），不在全屏时什么也不做
+     */
+    public void hide() {
+        hide(true);
+    }
+
+    /**
+     * 渲染进程退出时调用：移除全屏内容，但不调用 onCustomViewHidden（回调属于已经失效的WebView）
+     */
+    public void discard() {
+        hide(false);
+    }
+
+    private void hide(boolean notifyWebView) {
+        if (customView == null) {
+            return;
+        }
+        startTransition(false);
+
+        // 与进入时顺序相反，同样在同一个消息中完成
+        container.setVisibility(View.GONE);
+        activity.setRequestedOrientation(originalOrientation);
+        showSystemUI();
+        container.removeView(customView);
+
+        // 通知WebView全屏已关闭，让网页知道全屏状态已改变
+        if (notifyWebView && customViewCallback != null) {
+            customViewCallback.onCustomViewHidden();
+        }
+        customView = null;
+        customViewCallback = null;
+    }
+
+    /**
+     * Activity销毁时调用：退出全屏并停止统计
+     */
+    public void destroy() {
+        hide();
+        if (transition != null) {
+            transition.finish();
+        }
+    }
+
+    private void startTransition(boolean enter) {
+        if (transition != null) {
+            transition.finish(); // 上一次过渡还没稳定又开始新的过渡，按已有的数据结束
+        }
+        Display display = container.getDisplay();
+        float refreshRate = display != null ? display.getRefreshRate() : 60f;
+        transition = new Transition(enter, (long) (1_000_000_000L / refreshRate));
+        transition.start();
+    }
+
+    /**
+     * 一次进入或退出的逐帧统计
+     */
+    private final class Transition implements Choreographer.FrameCallback, ViewTreeObserver.OnGlobalLayoutListener {
+        final boolean enter;
+        final long frameIntervalNanos; // 屏幕刷新周期
+        final long startNanos = System.nanoTime();
+        final View decorView = activity.getWindow().getDecorView();
+        long lastFrameNanos; // 上一帧的垂直同步时间，0表示还没有收到帧
+        long lastLayoutNanos; // 最后一次布局的时间，0表示还没有布局
+        long maxFrameNanos;
+        int frames;
+        int droppedFrames;
+        int layouts;
+        int quietFrames; // 最后一次布局之后经过的帧数
+        boolean finished;
+
+        Transition(boolean enter, long frameIntervalNanos) {
+            this.enter = enter;
+            this.frameIntervalNanos = frameIntervalNanos;
+        }
+
+        void start() {
+            decorView.getViewTreeObserver().addOnGlobalLayoutListener(this);
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void onGlobalLayout() {
+            layouts++;
+            quietFrames = 0;
+            lastLayoutNanos = System.nanoTime();
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (finished) return;
+            if (lastFrameNanos != 0) {
+                long interval = frameTimeNanos - lastFrameNanos;
+                frames++;
+                maxFrameNanos = Math.max(maxFrameNanos, interval);
+                // 两帧之间跳过的刷新周期就是掉的帧
+                droppedFrames += (int) Math.max(0, Math.round((double) interval / frameIntervalNanos) - 1);
+            }
+            lastFrameNanos = frameTimeNanos;
+            quietFrames++;
+            boolean settled = layouts > 0 && quietFrames > SETTLE_FRAMES;
+            if (settled || (System.nanoTime() - startNanos) / 1_000_000 > MAX_TRANSITION_MILLIS) {
+                finish();
+            } else {
+                Choreographer.getInstance().postFrameCallback(this);
+            }
+        }
+
+        void finish() {
+            if (finished) return;
+            finished = true;
+            Choreographer.getInstance().removeFrameCallback(this);
+            ViewTreeObserver observer = decorView.getViewTreeObserver();
+            if (observer.isAlive()) {
+                observer.removeOnGlobalLayoutListener(this);
+            }
+            if (transition == this) {
+                transition = null;
+                container.setLayerType(View.LAYER_TYPE_NONE, null); // 过渡结束，取消硬件层
+            }
+
+            long millis = ((lastLayoutNanos != 0 ? lastLayoutNanos : System.nanoTime()) - startNanos) / 1_000_000;
+            long maxFrameMillis = maxFrameNanos / 1_000_000;
+            Log.i(TAG, "Fullscreen " + (enter ? "enter" : "exit") + ": " + millis + " ms, " + frames + " frames, "
+                + droppedFrames + " dropped, max frame " + maxFrameMillis + " ms, " + layouts + " layouts");
+            if (metrics != null) {
+                metrics.transition(enter, millis, frames, droppedFrames, maxFrameMillis, layouts);
+            }
+        }
+    }
+
+    /**
+     * 隐藏系统UI，实现沉浸式全屏效果
+     *
+     * 根据Android版本使用不同的API：
+     * - API 30+ (Android 11+): 使用新的 WindowInsetsController API
+     * - API 19-29 (Android 4.4-10): 使用 setSystemUiVisibility API
+     * - API < 19: 使用 Window flags（功能有限）
+     *
+     * 效果：隐藏状态栏和导航栏，让内容占满整个屏幕
+     */
+    private void hideSystemUI() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            // API 30+ 使用新的 WindowInsetsController（推荐方式）
+            WindowInsetsController controller = activity.getWindow().getInsetsController();
+            if (controller != null) {
+                controller.hide(WindowInsets.Type.systemBars()); // 隐藏系统栏
+                // 设置行为：用户可以通过滑动边缘临时显示系统栏
+                controller.setSystemBarsBehavior(
+                    WindowInsetsController.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
+            }
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // API 19-29 使用 setSystemUiVisibility（已弃用但兼容旧版本）
+            View decorView = activity.getWindow().getDecorView();
+            decorView.setSystemUiVisibility(
+                View.SYSTEM_UI_FLAG_LAYOUT_STABLE // 保持布局稳定
+                | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION // 布局延伸到导航栏下方
+                | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN // 布局延伸到状态栏下方
+                | View.SYSTEM_UI_FLAG_HIDE_NAVIGATION // 隐藏导航栏
+                | View.SYSTEM_UI_FLAG_FULLSCREEN // 隐藏状态栏
+                | View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY); // 沉浸式模式，滑动后自动隐藏
+        } else {
+            // API < 19 使用 Window flags（功能有限，只能隐藏状态栏）
+            activity.getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
+                WindowManager.LayoutParams.FLAG_FULLSCREEN);
+        }
+    }
+
+    /**
+     * 显示系统UI，退出全屏效果
+     *
+     * 根据Android版本使用不同的API恢复系统UI：
+     * - API 30+: 使用 WindowInsetsController.show()
+     * - API 19-29: 使用 setSystemUiVisibility() 设置基础标志
+     * - API < 19: 清除全屏标志
+     *
+     * 效果：恢复显示状态栏和导航栏
+     */
+    private void showSystemUI() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            // API 30+ 使用新的 WindowInsetsController（推荐方式）
+            WindowInsetsController controller = activity.getWindow().getInsetsController();
+            if (controller != null) {
+                controller.show(WindowInsets.Type.systemBars()); // 显示系统栏
+            }
+        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            // API 19-29 使用 setSystemUiVisibility（已弃用但兼容旧版本）
+            View decorView = activity.getWindow().getDecorView();
+            // 只保留布局标志，移除隐藏标志，让系统栏显示出来
+            decorView.setSystemUiVisibility(
+                View.SYSTEM_UI_FLAG_LAYOUT_STABLE
+                | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION
+                | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN);
+        } else {
+            // API < 19 使用 Window flags
+            activity.getWindow().clearFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN);
+        }
+    }
+}
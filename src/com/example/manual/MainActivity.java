@@ -1,18 +1,15 @@
 package com.example.manual;
 
 import android.app.Activity;
+import android.content.ClipData;
 import android.content.Intent;
-import android.content.pm.ActivityInfo;
 import android.net.Uri;
 import android.os.Build; // 需要导入 Build
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
-import android.view.ViewGroup;
 import android.view.Window;
-import android.view.WindowInsets;
-import android.view.WindowInsetsController;
-import android.view.WindowManager;
+import android.webkit.RenderProcessGoneDetail;
 import android.webkit.ServiceWorkerClient; // 新增导入
 import android.webkit.ServiceWorkerController; // 新增导入
 import android.webkit.ValueCallback;
@@ -22,13 +19,7 @@ import android.webkit.WebResourceResponse;
 import android.webkit.WebSettings;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
-import android.widget.FrameLayout;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * MainActivity - Android应用主Activity
@@ -37,24 +28,45 @@ import java.util.Map;
  * 1. 使用WebView加载并显示本地网页资源（从assets/dist目录）
  * 2. 通过虚拟域名"mypage.test"拦截请求，将网络请求映射到本地资源文件
  * 3. 支持Service Worker请求拦截，确保离线功能正常工作
- * 4. 支持网页文件上传功能（通过文件选择器）
- * 5. 支持WebView全屏显示功能（如视频全屏播放）
+ * 4. 支持网页文件上传功能（通过文件选择器，支持多选），选中的文件同时可以通过 /__files/<令牌> 地址按需读取
+ * 5. 支持WebView全屏显示功能（如视频全屏播放），全屏容器只创建一次并记录过渡的帧耗时（见 FullscreenHost）
  * 6. 全屏时自动旋转屏幕为横屏，退出全屏时恢复原始方向
+ * 7. 支持用下载到应用私有目录的内容包替换APK中的网页资源（无需重新打包APK）
+ * 8. 随Activity生命周期暂停/恢复WebView，响应系统内存回收并在销毁时释放WebView（见 WebViewGovernor）
+ * 9. 渲染进程崩溃或被系统回收时原地换一个新的WebView，恢复导航历史；页面自己的状态通过消息通道保存、在 /__state 取回
+ * 10. 每个页面加载完成后建立与原生的消息通道（见 NativeChannel），页面通过 /__channel.js 使用
+ * 11. 资源加载器和WebView的预热在 ManualApp 中提前完成，这里记录冷启动的各个时间点，首页加载完成后输出到日志
  */
 public class MainActivity extends Activity {
+    private static final String TAG = "WebViewDebug";
+
 
     private WebView webView;
     private ValueCallback<Uri[]> mUploadCallback; // 文件上传回调，用于接收用户选择的文件
     private static final int FILECHOOSER_RESULTCODE = 100; // 文件选择器的请求码
 
-    // 全屏相关成员变量
-    private View customView; // 全屏时显示的自定义视图（通常是视频播放器）
-    private WebChromeClient.CustomViewCallback customViewCallback; // 全屏视图的回调，用于通知WebView全屏状态
-    private FrameLayout fullscreenContainer; // 全屏视图的容器，用于承载全屏内容
-    private int originalOrientation; // 保存进入全屏前的屏幕方向，退出全屏时恢复
+    private FullscreenHost fullscreen; // 全屏视图（通常是视频播放器）的宿主，跨WebView重建保留
 
-    // 将资源加载器提取为成员变量，供 WebViewClient 和 ServiceWorkerClient 共用
+    // 资源加载器由 ManualApp 创建并在进程内共用，供 WebViewClient 和 ServiceWorkerClient 使用
     private AssetResourceLoader assetLoader;
+    private StartupTrace startupTrace; // 冷启动时间点
+    private WebViewGovernor governor; // WebView的生命周期与内存管理
+    private AssetMetrics metrics; // 请求统计，未开启时为null
+    private RecoveryMetrics recoveryMetrics; // 渲染进程恢复的统计，未开启统计时为null
+    private PageStateStore pageState; // 页面状态快照，跨WebView重建保留
+    private NativeChannel nativeChannel; // 页面与原生之间的消息通道
+
+    // 渲染进程恢复相关
+    private static final String START_URL = "https://mypage.test/index.html"; // 首页
+    private static final String STATE_WEBVIEW = "com.example.manual.WEBVIEW_STATE"; // savedInstanceState 中的导航历史
+    private static final String STATE_PAGE_SNAPSHOT = "com.example.manual.PAGE_SNAPSHOT"; // savedInstanceState 中是否有页面快照（快照本身在 KvStore 中）
+    private static final long RECOVERY_LOOP_MILLIS = 10_000; // 上次恢复后这么短时间内再次退出，视为恢复的状态本身有问题
+    private static final int MAX_CONSECUTIVE_RECOVERIES = 3; // 连续这么多次快速退出后放弃恢复，关闭Activity
+    private Bundle navigationState; // 最近一次保存的导航历史（WebView.saveState）
+    private boolean resumed; // Activity当前是否在前台
+    private long restoreStartMillis; // 正在进行的恢复的开始时间（StartupTrace.now()），0表示没有
+    private long lastRecoveryMillis; // 上一次恢复的开始时间
+    private int consecutiveRecoveries; // 连续快速退出的次数
 
     /**
      * Activity创建时的初始化方法
@@ -72,18 +84,60 @@ public class MainActivity extends Activity {
         super.onCreate(savedInstanceState);
         requestWindowFeature(Window.FEATURE_NO_TITLE); // 隐藏标题栏
 
-        // 保存当前屏幕方向，用于全屏退出时恢复
-        originalOrientation = getRequestedOrientation();
+        // 资源加载器在 ManualApp 中创建，首屏关键资源此时已经在后台预读
+        ManualApp app = (ManualApp) getApplication();
+        assetLoader = app.assetLoader();
+        startupTrace = app.startupTrace();
+        startupTrace.mark(StartupTrace.ACTIVITY_CREATE);
+        metrics = app.metrics();
+        recoveryMetrics = metrics != null ? metrics.section("recovery", RecoveryMetrics::new) : null;
+        pageState = assetLoader.pageState();
+        nativeChannel = new NativeChannel(app.channelDispatcher(), "https://mypage.test");
+
+        createWebView();
+
+        // 2. 【关键】设置 ServiceWorkerClient (拦截 Service Worker 请求)
+        // Service Worker是网页的离线缓存机制，它也会发起网络请求
+        // 如果不拦截Service Worker的请求，离线功能可能无法正常工作
+        // ServiceWorkerController 仅在 API 24 (Android 7.0) 及以上可用
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            ServiceWorkerController swController = ServiceWorkerController.getInstance();
+            swController.setServiceWorkerClient(new ServiceWorkerClient() {
+                @Override
+                public WebResourceResponse shouldInterceptRequest(WebResourceRequest request) {
+                    // 复用同样的加载逻辑，确保Service Worker也能访问本地资源
+                    return assetLoader.shouldIntercept(request, AssetMetrics.CLIENT_SERVICE_WORKER);
+                }
+            });
+        }
 
-        // 初始化资源加载帮助类
-        // 参数说明：虚拟域名"mypage.test"，本地资源目录"dist"（位于assets/dist）
-        assetLoader = new AssetResourceLoader(this, "mypage.test", "dist");
+        setContentView(webView);
+        fullscreen = new FullscreenHost(this, metrics); // 在 setContentView 之后，容器才会在页面之上
+        startupTrace.mark(StartupTrace.LOAD_URL);
+        // Activity因进程被回收而重建时恢复导航历史和页面快照，否则加载首页
+        Bundle webViewState = null;
+        if (savedInstanceState != null) {
+            webViewState = savedInstanceState.getBundle(STATE_WEBVIEW);
+            navigationState = webViewState;
+            if (savedInstanceState.getBoolean(STATE_PAGE_SNAPSHOT)) {
+                pageState.restoreOnDemand();
+            }
+        }
+        loadPage(webViewState);
+    }
 
+    /**
+     * 创建并配置WebView，保存到 webView 成员中（启动时和渲染进程恢复时共用）
+     * 新的WebView还没有加入界面，调用方负责 setContentView 和加载页面
+     */
+    private void createWebView() {
         // 创建并配置WebView
         webView = new WebView(this);
+        startupTrace.mark(StartupTrace.WEBVIEW_CREATED);
+        governor = new WebViewGovernor(webView);
         WebSettings settings = webView.getSettings();
         settings.setJavaScriptEnabled(true); // 启用JavaScript支持
-        settings.setDomStorageEnabled(true); // 启用DOM存储（LocalStorage等）
+        settings.setDomStorageEnabled(true); // 启用DOM存储（LocalStorage等）；大量数据请改用 KvStore
         settings.setAllowFileAccess(true); // 允许访问本地文件
         //WebView.setWebContentsDebuggingEnabled(true); // 启用远程调试（Chrome DevTools）
 
@@ -94,24 +148,39 @@ public class MainActivity extends Activity {
             @Override
             public WebResourceResponse shouldInterceptRequest(WebView view, WebResourceRequest request) {
                 // 调用资源加载器拦截请求，如果是虚拟域名则返回本地资源，否则返回null走默认网络逻辑
-                return assetLoader.shouldIntercept(request.getUrl());
+                return assetLoader.shouldIntercept(request, AssetMetrics.CLIENT_PAGE);
             }
-        });
 
-        // 2. 【关键】设置 ServiceWorkerClient (拦截 Service Worker 请求)
-        // Service Worker是网页的离线缓存机制，它也会发起网络请求
-        // 如果不拦截Service Worker的请求，离线功能可能无法正常工作
-        // ServiceWorkerController 仅在 API 24 (Android 7.0) 及以上可用
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
-            ServiceWorkerController swController = ServiceWorkerController.getInstance();
-            swController.setServiceWorkerClient(new ServiceWorkerClient() {
-                @Override
-                public WebResourceResponse shouldInterceptRequest(WebResourceRequest request) {
-                    // 复用同样的加载逻辑，确保Service Worker也能访问本地资源
-                    return assetLoader.shouldIntercept(request.getUrl());
+            /**
+             * 页面加载完成：
+             * 首页第一次加载完成时记录冷启动时间点并输出日志；渲染进程恢复后的加载完成时记录恢复耗时；
+             * 每次都保存一份导航历史，渲染进程意外退出时用它恢复
+             */
+            @Override
+            public void onPageFinished(WebView view, String url) {
+                if (startupTrace.elapsed(StartupTrace.PAGE_FINISHED) < 0) {
+                    startupTrace.mark(StartupTrace.PAGE_FINISHED);
+                    Log.i(TAG, startupTrace.toString());
                 }
-            });
-        }
+                if (view == webView) {
+                    if (restoreStartMillis != 0) {
+                        onRestoreFinished();
+                    }
+                    saveNavigationState();
+                    nativeChannel.connect(view); // 新文档需要新的端口
+                }
+            }
+
+            /**
+             * 渲染进程崩溃或被系统回收
+             * 不处理（返回false）时整个应用进程会被结束；这里原地换一个新的WebView并恢复状态
+             */
+            @Override
+            public boolean onRenderProcessGone(WebView view, RenderProcessGoneDetail detail) {
+                onRendererGone(view, detail.didCrash());
+                return true;
+            }
+        });
 
         // 3. 设置 WebChromeClient (处理文件选择和全屏)
         // WebChromeClient用于处理WebView的扩展功能，如文件选择、全屏、进度条等
@@ -131,6 +200,9 @@ public class MainActivity extends Activity {
                 Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
                 intent.addCategory(Intent.CATEGORY_OPENABLE); // 只选择可打开的文件
                 intent.setType("*/*"); // 允许选择所有类型的文件
+                // <input type=file multiple> 时允许一次选择多个文件
+                intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE,
+                    fileChooserParams.getMode() == FileChooserParams.MODE_OPEN_MULTIPLE);
                 
                 // 启动文件选择器
                 // 注意：startActivityForResult() 在 API 30+ 已弃用，但为了兼容性保留
@@ -143,45 +215,12 @@ public class MainActivity extends Activity {
              * 处理全屏显示请求（如视频全屏播放）
              * 当网页中的视频请求全屏时，会调用此方法
              * 
-             * 实现步骤：
-             * 1. 创建全屏容器并设置黑色背景
-             * 2. 将全屏视图（通常是视频播放器）添加到容器中
-             * 3. 将容器添加到Activity的根视图，覆盖整个屏幕
-             * 4. 隐藏系统UI（状态栏、导航栏）实现沉浸式全屏
-             * 5. 设置屏幕方向为横屏，让视频占满整个屏幕
+             * 全屏视图（通常是视频播放器）交给 FullscreenHost 显示：
+             * 隐藏系统UI（状态栏、导航栏）、设置屏幕方向为横屏，让视频占满整个屏幕
              */
             @Override
             public void onShowCustomView(View view, WebChromeClient.CustomViewCallback callback) {
-                // 如果已经有一个全屏视图，先关闭它（防止重复全屏）
-                if (customView != null) {
-                    onHideCustomView();
-                    return;
-                }
-
-                // 保存全屏视图和回调，用于后续退出全屏
-                customView = view;
-                customViewCallback = callback;
-
-                // 创建全屏容器，用于承载全屏内容
-                fullscreenContainer = new FrameLayout(MainActivity.this);
-                fullscreenContainer.setLayoutParams(new ViewGroup.LayoutParams(
-                    ViewGroup.LayoutParams.MATCH_PARENT,
-                    ViewGroup.LayoutParams.MATCH_PARENT));
-                fullscreenContainer.setBackgroundColor(0xFF000000); // 黑色背景
-
-                // 将全屏视图（视频播放器）添加到容器中
-                fullscreenContainer.addView(view);
-
-                // 将容器添加到Activity的根视图（DecorView），覆盖整个屏幕
-                ViewGroup decorView = (ViewGroup) getWindow().getDecorView();
-                decorView.addView(fullscreenContainer);
-
-                // 隐藏系统UI（状态栏、导航栏），实现真正的沉浸式全屏
-                hideSystemUI();
-
-                // 设置屏幕方向为横屏，允许根据设备方向自动旋转（支持正反横屏）
-                // 这样视频可以占满整个屏幕，而不是只占据中间部分
-                setRequestedOrientation(ActivityInfo.SCREEN_ORIENTATION_SENSOR_LANDSCAPE);
+                fullscreen.show(view, callback);
             }
 
             /**
@@ -190,12 +229,166 @@ public class MainActivity extends Activity {
              */
             @Override
             public void onHideCustomView() {
-                exitFullscreen(); // 调用统一的退出全屏方法
+                fullscreen.hide();
             }
         });
+    }
 
+    /**
+     * Activity回到前台：恢复WebView和JS计时器
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        resumed = true;
+        if (webView == null) {
+            recreateWebView(); // 渲染进程在后台时退出，回到前台才重建
+        }
+        governor.onResume();
+    }
+
+    /**
+     * Activity进入后台：暂停WebView和JS计时器，后台不再运行页面的动画和定时任务
+     */
+    @Override
+    protected void onPause() {
+        resumed = false;
+        if (webView != null) {
+            saveNavigationState();
+            governor.onPause();
+        }
+        super.onPause();
+    }
+
+    /**
+     * 保存导航历史和页面快照，Activity因进程被回收而重建时在 onCreate 中恢复
+     */
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (webView != null) {
+            saveNavigationState();
+        }
+        if (navigationState != null) {
+            outState.putBundle(STATE_WEBVIEW, navigationState);
+        }
+        // 快照可能有几百KB，只记录标记，快照本身已经写入 KvStore
+        outState.putBoolean(STATE_PAGE_SNAPSHOT, pageState.hasSnapshot());
+    }
+
+    /**
+     * 系统内存紧张：通知页面释放缓存，严重时清空WebView的内存缓存
+     * 资源加载器的缓存在 ManualApp.onTrimMemory 中处理
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (webView != null) {
+            governor.onTrimMemory(level);
+        }
+    }
+
+    /**
+     * Activity销毁：退出全屏并销毁WebView，释放渲染进程占用的内存
+     */
+    @Override
+    protected void onDestroy() {
+        fullscreen.destroy();
+        if (mUploadCallback != null) {
+            mUploadCallback.onReceiveValue(null); // 文件选择还没有返回，通知页面取消
+            mUploadCallback = null;
+        }
+        nativeChannel.destroy();
+        if (webView != null) {
+            governor.onDestroy();
+            webView = null;
+        }
+        super.onDestroy();
+    }
+
+    /**
+     * 加载页面：有导航历史时恢复历史（当前页面重新加载），否则加载首页
+     * 页面内容来自共用的 AssetResourceLoader，内存缓存在WebView重建前后一直有效
+     */
+    private void loadPage(Bundle state) {
+        if (state != null && webView.restoreState(state) != null) {
+            return;
+        }
+        webView.loadUrl(START_URL);
+    }
+
+    /**
+     * 保存一份当前的导航历史，渲染进程退出后就无法再从WebView中取得
+     */
+    private void saveNavigationState() {
+        Bundle state = new Bundle();
+        if (webView.saveState(state) != null) {
+            navigationState = state;
+        }
+    }
+
+    /**
+     * 渲染进程退出后的恢复
+     *
+     * 1. 销毁已经失效的WebView：只从界面移除并 destroy()，它不能再使用，也不能再保存状态（见 WebViewGovernor.onRendererGone）
+     * 2. 上一次恢复后很快又退出时，不再恢复导航历史和页面快照（它们可能就是退出的原因），直接加载首页；
+     *    连续多次快速退出则放弃恢复，关闭Activity
+     * 3. 在前台时立即创建新的WebView并恢复；在后台时等回到前台再恢复，后台不占用新渲染进程的内存
+     */
+    private void onRendererGone(WebView view, boolean crashed) {
+        if (view != webView) {
+            return; // 已经被替换掉的旧WebView
+        }
+        String reason = crashed ? PageStateStore.REASON_CRASH : PageStateStore.REASON_KILLED;
+        Log.w(TAG, "Renderer gone (" + reason + "), recovering");
+        if (recoveryMetrics != null) recoveryMetrics.rendererGone(crashed);
+        pageState.recoveryStarted(reason);
+
+        long now = StartupTrace.now();
+        boolean looping = restoreStartMillis != 0 || now - lastRecoveryMillis < RECOVERY_LOOP_MILLIS;
+        lastRecoveryMillis = now;
+        restoreStartMillis = 0;
+        consecutiveRecoveries = looping ? consecutiveRecoveries + 1 : 0;
+
+        fullscreen.discard();
+        nativeChannel.disconnect();
+        governor.onRendererGone();
+        webView = null;
+
+        if (consecutiveRecoveries >= MAX_CONSECUTIVE_RECOVERIES) {
+            Log.e(TAG, "Renderer keeps exiting, giving up");
+            finish();
+            return;
+        }
+        if (looping) {
+            Log.w(TAG, "Renderer exited again shortly after recovery, starting from " + START_URL);
+            navigationState = null;
+            pageState.discard();
+        }
+        if (resumed) {
+            recreateWebView();
+        }
+    }
+
+    /**
+     * 创建新的WebView替换已经退出的那个，并恢复导航历史
+     */
+    private void recreateWebView() {
+        restoreStartMillis = StartupTrace.now();
+        createWebView();
         setContentView(webView);
-        webView.loadUrl("https://mypage.test/index.html");
+        loadPage(navigationState);
+    }
+
+    /**
+     * 恢复后的页面加载完成，记录恢复耗时
+     */
+    private void onRestoreFinished() {
+        long millis = StartupTrace.now() - restoreStartMillis;
+        restoreStartMillis = 0;
+        if (recoveryMetrics != null) recoveryMetrics.rendererRestored(millis);
+        pageState.recoveryFinished(millis);
+        Log.i(TAG, "Renderer recovered in " + millis + " ms");
     }
 
     /**
@@ -213,8 +406,8 @@ public class MainActivity extends Activity {
     @SuppressWarnings("deprecation")
     public void onBackPressed() {
         // 如果正在全屏，先退出全屏（而不是直接退出Activity）
-        if (customView != null) {
-            exitFullscreen();
+        if (fullscreen.isShowing()) {
+            fullscreen.hide();
             return;
         }
 
@@ -228,114 +421,28 @@ public class MainActivity extends Activity {
     }
 
     /**
-     * 退出全屏的辅助方法
-     * 
-     * 执行步骤：
-     * 1. 恢复系统UI（显示状态栏和导航栏）
-     * 2. 恢复进入全屏前的屏幕方向
-     * 3. 从Activity根视图中移除全屏容器
-     * 4. 通知WebView全屏已关闭
-     * 5. 清空所有全屏相关的引用
-     */
-    private void exitFullscreen() {
-        if (customView == null) {
-            return; // 如果不在全屏状态，直接返回
-        }
-
-        // 恢复系统UI（状态栏、导航栏）
-        showSystemUI();
-
-        // 恢复进入全屏前保存的屏幕方向
-        setRequestedOrientation(originalOrientation);
-
-        // 从Activity的根视图（DecorView）中移除全屏容器
-        ViewGroup decorView = (ViewGroup) getWindow().getDecorView();
-        decorView.removeView(fullscreenContainer);
-
-        // 调用回调通知WebView全屏已关闭，让网页知道全屏状态已改变
-        if (customViewCallback != null) {
-            customViewCallback.onCustomViewHidden();
-        }
-
-        // 清空所有全屏相关的引用，释放资源
-        customView = null;
-        customViewCallback = null;
-        fullscreenContainer = null;
-    }
-
-    /**
-     * 隐藏系统UI，实现沉浸式全屏效果
-     * 
-     * 根据Android版本使用不同的API：
-     * - API 30+ (Android 11+): 使用新的 WindowInsetsController API
-     * - API 19-29 (Android 4.4-10): 使用 setSystemUiVisibility API
-     * - API < 19: 使用 Window flags（功能有限）
-     * 
-     * 效果：隐藏状态栏和导航栏，让内容占满整个屏幕
-     */
-    private void hideSystemUI() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-            // API 30+ 使用新的 WindowInsetsController（推荐方式）
-            WindowInsetsController controller = getWindow().getInsetsController();
-            if (controller != null) {
-                controller.hide(WindowInsets.Type.systemBars()); // 隐藏系统栏
-                // 设置行为：用户可以通过滑动边缘临时显示系统栏
-                controller.setSystemBarsBehavior(
-                    WindowInsetsController.BEHAVIOR_SHOW_TRANSIENT_BARS_BY_SWIPE);
-            }
-        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            // API 19-29 使用 setSystemUiVisibility（已弃用但兼容旧版本）
-            View decorView = getWindow().getDecorView();
-            decorView.setSystemUiVisibility(
-                View.SYSTEM_UI_FLAG_LAYOUT_STABLE // 保持布局稳定
-                | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION // 布局延伸到导航栏下方
-                | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN // 布局延伸到状态栏下方
-                | View.SYSTEM_UI_FLAG_HIDE_NAVIGATION // 隐藏导航栏
-                | View.SYSTEM_UI_FLAG_FULLSCREEN // 隐藏状态栏
-                | View.SYSTEM_UI_FLAG_IMMERSIVE_STICKY); // 沉浸式模式，滑动后自动隐藏
-        } else {
-            // API < 19 使用 Window flags（功能有限，只能隐藏状态栏）
-            getWindow().setFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN,
-                WindowManager.LayoutParams.FLAG_FULLSCREEN);
-        }
-    }
-
-    /**
-     * 显示系统UI，退出全屏效果
-     * 
-     * 根据Android版本使用不同的API恢复系统UI：
-     * - API 30+: 使用 WindowInsetsController.show()
-     * - API 19-29: 使用 setSystemUiVisibility() 设置基础标志
-     * - API < 19: 清除全屏标志
-     * 
-     * 效果：恢复显示状态栏和导航栏
+     * 取出文件选择器返回的全部Uri
+     *
+     * @return Uri数组，没有选择任何文件时返回null
      */
-    private void showSystemUI() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
-            // API 30+ 使用新的 WindowInsetsController（推荐方式）
-            WindowInsetsController controller = getWindow().getInsetsController();
-            if (controller != null) {
-                controller.show(WindowInsets.Type.systemBars()); // 显示系统栏
+    private static Uri[] pickedUris(Intent data) {
+        ClipData clip = data.getClipData();
+        if (clip != null && clip.getItemCount() > 0) {
+            Uri[] uris = new Uri[clip.getItemCount()];
+            for (int i = 0; i < uris.length; i++) {
+                uris[i] = clip.getItemAt(i).getUri();
             }
-        } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            // API 19-29 使用 setSystemUiVisibility（已弃用但兼容旧版本）
-            View decorView = getWindow().getDecorView();
-            // 只保留布局标志，移除隐藏标志，让系统栏显示出来
-            decorView.setSystemUiVisibility(
-                View.SYSTEM_UI_FLAG_LAYOUT_STABLE
-                | View.SYSTEM_UI_FLAG_LAYOUT_HIDE_NAVIGATION
-                | View.SYSTEM_UI_FLAG_LAYOUT_FULLSCREEN);
-        } else {
-            // API < 19 使用 Window flags
-            getWindow().clearFlags(WindowManager.LayoutParams.FLAG_FULLSCREEN);
+            return uris;
         }
+        return data.getData() != null ? new Uri[]{data.getData()} : null;
     }
 
     /**
      * 处理Activity结果回调（用于文件选择器）
      * 
      * 当用户从文件选择器中选择文件后，系统会调用此方法
-     * 我们将用户选择的文件URI通过回调返回给WebView，让网页可以访问文件
+     * 我们将用户选择的文件URI通过回调返回给WebView，让网页可以访问文件，
+     * 并为每个文件登记 /__files/<令牌> 地址（见 PickedFiles）
      * 
      * 注意：onActivityResult() 在 API 30+ 已弃用，但为了兼容性保留
      * 如果需要完全使用新API，需要引入 ActivityX 库并使用 ActivityResultLauncher
@@ -349,133 +456,33 @@ public class MainActivity extends Activity {
             
             Uri[] results = null;
             // 如果用户成功选择了文件，获取文件的URI
-            // 使用 getData() 替代已弃用的 getDataString()
-            if (resultCode == Activity.RESULT_OK && data != null && data.getData() != null) {
-                results = new Uri[]{data.getData()}; // 将URI包装成数组
+            // 多选时结果在 getClipData() 中，单选时在 getData() 中
+            if (resultCode == Activity.RESULT_OK && data != null) {
+                results = pickedUris(data);
             }
             // 将结果通过回调返回给WebView
             mUploadCallback.onReceiveValue(results);
             mUploadCallback = null; // 清空回调，防止重复使用
+
+            // 同时为每个文件登记 /__files/<令牌> 地址，并通知页面（事件名 nativefilespicked，detail 为文件列表）
+            // 页面可以直接用这些地址播放或分段读取大文件，而不必用 FileReader 读入整个文件
+            // 查询文件元数据是跨进程调用，放到工作线程，完成后回到主线程派发事件
+            if (results != null && webView != null) {
+                final Uri[] uris = results;
+                final PickedFiles picked = assetLoader.pickedFiles();
+                Thread register = new Thread(() -> {
+                    String json = picked.toJson(picked.register(uris));
+                    runOnUiThread(() -> {
+                        if (webView == null) return; // Activity已销毁
+                        webView.evaluateJavascript(
+                            "window.dispatchEvent(new CustomEvent('nativefilespicked',{detail:" + json + "}))", null);
+                    });
+                }, "picked-files");
+                register.start();
+            }
         } else {
             // 其他请求码，交给父类处理
             super.onActivityResult(requestCode, resultCode, data);
         }
     }
-
-    /**
-     * 资源加载器类 (Helper Class)
-     * 
-     * 功能说明：
-     * 将网络请求拦截并映射到本地资源文件的逻辑封装在此类中
-     * 通过虚拟域名（如"mypage.test"）拦截请求，从assets目录加载对应的本地文件
-     * 支持WebViewClient和ServiceWorkerClient共用，避免代码重复
-     * 
-     * 工作流程：
-     * 1. 检查请求的域名是否匹配虚拟域名
-     * 2. 将URL路径转换为assets目录下的文件路径
-     * 3. 从assets目录读取文件并返回WebResourceResponse
-     * 4. 根据文件扩展名设置正确的MIME类型
-     */
-    private static class AssetResourceLoader {
-        private Activity context; // Activity上下文，用于访问assets
-        private String virtualDomain; // 虚拟域名（如"mypage.test"）
-        private String localAssetBase; // 本地资源基础目录（如"dist"）
-        private Map<String, String> mimeTypes; // MIME类型映射表
-
-        /**
-         * 构造函数
-         * 
-         * @param context Activity上下文
-         * @param domain 虚拟域名，用于拦截请求
-         * @param assetBase assets目录下的基础文件夹名称
-         */
-        public AssetResourceLoader(Activity context, String domain, String assetBase) {
-            this.context = context;
-            this.virtualDomain = domain;
-            this.localAssetBase = assetBase;
-            initMimeTypes(); // 初始化MIME类型映射表
-        }
-
-        /**
-         * 统一的拦截入口
-         * 
-         * 处理流程：
-         * 1. 检查URL的域名是否匹配虚拟域名
-         * 2. 将URL路径转换为assets目录下的文件路径
-         * 3. 从assets目录读取文件
-         * 4. 根据文件扩展名确定MIME类型
-         * 5. 返回WebResourceResponse给WebView
-         * 
-         * @param url 请求的URL
-         * @return WebResourceResponse 如果匹配虚拟域名则返回本地资源，否则返回null走默认网络逻辑
-         */
-        public WebResourceResponse shouldIntercept(Uri url) {
-            // 仅仅拦截我们的虚拟域名，其他域名走默认网络逻辑
-            if (url.getHost() != null && url.getHost().equals(virtualDomain)) {
-                String assetPath = "";
-                try {
-                    // 获取URL路径，处理默认路径和空路径
-                    String path = url.getPath();
-                    if (path == null || path.equals("/") || path.isEmpty()) {
-                        path = "/index.html"; // 默认加载index.html
-                    }
-                    // 移除路径开头的"/"，因为assets路径不需要前导斜杠
-                    if (path.startsWith("/")) {
-                        path = path.substring(1);
-                    }
-                    // 构建完整的assets路径：dist/xxx.html
-                    assetPath = localAssetBase + "/" + path;
-
-                    // 从assets目录打开文件流
-                    InputStream stream = context.getAssets().open(assetPath);
-                    // 根据文件扩展名获取MIME类型
-                    String mimeType = getMimeType(assetPath);
-                    // 返回资源响应，WebView会使用这个响应来渲染内容
-                    return new WebResourceResponse(mimeType, "UTF-8", stream);
-
-                } catch (IOException e) {
-                    // 文件不存在，返回404错误页面
-                    Log.e("WebViewDebug", "File not found: " + assetPath);
-                    String errorHtml = "<html><body><h2 style='color:red;'>404 Not Found</h2><p>" + assetPath + "</p></body></html>";
-                    return new WebResourceResponse("text/html", "UTF-8", 404, "Not Found", null, new ByteArrayInputStream(errorHtml.getBytes()));
-                }
-            }
-            // 如果不是该域名的请求，返回 null 让 WebView 走默认网络逻辑
-            // 注意：因为虚拟域名不存在，网络请求会失败，但这是预期的行为
-            return null;
-        }
-
-        /**
-         * 初始化MIME类型映射表
-         * 根据文件扩展名映射到对应的MIME类型，用于正确设置HTTP响应头
-         */
-        private void initMimeTypes() {
-            mimeTypes = new HashMap<>();
-            mimeTypes.put("html", "text/html");
-            mimeTypes.put("css", "text/css");
-            mimeTypes.put("js", "application/javascript");
-            mimeTypes.put("json", "application/json");
-            mimeTypes.put("png", "image/png");
-            mimeTypes.put("jpg", "image/jpeg");
-            mimeTypes.put("svg", "image/svg+xml");
-        }
-
-        /**
-         * 根据文件URL获取MIME类型
-         * 
-         * @param url 文件URL或路径
-         * @return MIME类型字符串，如果无法识别则返回"application/octet-stream"
-         */
-        private String getMimeType(String url) {
-            // 从URL中提取文件扩展名
-            String extension = "";
-            int i = url.lastIndexOf('.');
-            if (i > 0) extension = url.substring(i + 1);
-            
-            // 从映射表中查找MIME类型
-            String mime = mimeTypes.get(extension);
-            // 如果找不到，返回默认的二进制流类型
-            return mime != null ? mime : "application/octet-stream";
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package com.example.manual;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.os.Process;
+import android.util.Log;
+import android.webkit.WebSettings;
+
+import java.io.File;
+
+/**
+ * 应用入口 (Application)
+ *
+ * 功能说明：
+ * 冷启动时尽早开始两件互不依赖的耗时工作，让它们与 MainActivity 的创建重叠进行：
+ * 1. 后台线程把首屏关键资源（索引中的"p"标志：index.html 及其直接引用的脚本、样式）读入内存缓存，
+ *    页面加载时第一批 shouldInterceptRequest 直接从内存返回
+ * 2. 主线程加载WebView实现（Chromium）：WebSettings.getDefaultUserAgent 会触发WebView提供方的加载和初始化，
+ *    这是创建第一个WebView时最耗时的部分，放在这里可以与上面的后台预读同时进行
+ *    注意：不能放到后台线程，Chromium初始化需要在主线程上完成，后台调用会与主线程创建WebView互相等待
+ *
+ * 资源加载器（AssetResourceLoader）也在这里创建并在整个进程内共用，预读的内容才能被页面请求用到
+ *
+ * 页面与原生之间的消息通道（ChannelDispatcher）同样在这里创建，请求处理器在这里注册，进程内所有页面共用
+ *
+ * 冷启动各时间点记录在 StartupTrace 中，开启统计时在 /__metrics 的 "startup" 字段输出
+ */
+public class ManualApp extends Application {
+    private static final String TAG = "WebViewDebug";
+
+    // 热点资源缓存：总共最多 8MB，单个文件超过 512KB 不缓存
+    private static final long ASSET_CACHE_BYTES = 8 * 1024 * 1024;
+    private static final int ASSET_CACHE_MAX_ENTRY_BYTES = 512 * 1024;
+
+    // 清单中控制请求统计的 meta-data 名称
+    private static final String METRICS_META_DATA = "com.example.manual.ASSET_METRICS";
+
+    // 清单中异步响应体线程数的 meta-data 名称（0表示关闭），以及排队任务数上限
+    private static final String ASYNC_STREAM_META_DATA = "com.example.manual.ASYNC_STREAM_THREADS";
+    private static final int ASYNC_STREAM_MAX_QUEUED = 64;
+
+    // 依赖预取：同时读取的文件数，以及排队的预取任务数上限
+    private static final int PREFETCH_THREADS = 2;
+    private static final int PREFETCH_MAX_QUEUED = 32;
+
+    // 消息通道：处理请求的线程数，以及排队的请求数上限（两者之和就是页面同时可以发出的请求数）
+    private static final int CHANNEL_THREADS = 2;
+    private static final int CHANNEL_MAX_QUEUED = 16;
+
+    // 内容包位置（应用私有目录下）：下载器把新内容包写到 incoming，下次启动时校验并替换 current
+    private static final String CONTENT_PACK_DIR = "web";
+    private static final String CONTENT_PACK_CURRENT = "current.pack";
+    private static final String CONTENT_PACK_INCOMING = "incoming.pack";
+
+    private StartupTrace startupTrace;
+    private AssetMetrics metrics; // 未开启统计时为null
+    private ChannelDispatcher channelDispatcher;
+    private AssetResourceLoader assetLoader;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        startupTrace = new StartupTrace(Process.getStartUptimeMillis());
+        startupTrace.mark(StartupTrace.APP_CREATE);
+
+        // 初始化资源加载帮助类
+        // 参数说明：虚拟域名"mypage.test"，本地资源目录"dist"（位于assets/dist），页面和Service Worker共用的内存缓存
+        // 请求统计由清单中的 meta-data 开关控制，开启后可访问 https://mypage.test/__metrics 查看
+        // 异步响应体同样由清单控制，开启后打开文件的工作按资源类别的优先级在专用线程中进行
+        // 页面请求带有依赖的文件（如index.html）时，它引用的脚本、样式和字体在后台预取到同一个缓存中
+        Bundle metaData = getAppMetaData();
+        metrics = isMetricsEnabled(metaData) ? new AssetMetrics() : null;
+        if (metrics != null) metrics.section("startup", () -> startupTrace);
+        int streamThreads = metaData != null ? metaData.getInt(ASYNC_STREAM_META_DATA, 0) : 0;
+        AssetCache cache = new AssetCache(ASSET_CACHE_BYTES, ASSET_CACHE_MAX_ENTRY_BYTES);
+        assetLoader = new AssetResourceLoader(this, "mypage.test", "dist", cache, metrics,
+            streamThreads > 0 ? new AsyncStreamer(streamThreads, ASYNC_STREAM_MAX_QUEUED, metrics) : null,
+            new Prefetcher(cache, PREFETCH_THREADS, PREFETCH_MAX_QUEUED, metrics), startupTrace);
+        loadContentPack(); // 有已下载的内容包时优先使用，见下方说明
+
+        channelDispatcher = new ChannelDispatcher(CHANNEL_THREADS, CHANNEL_MAX_QUEUED, assetLoader.blobs());
+        registerChannelHandlers();
+
+        // 1. 后台预读首屏关键资源
+        Thread preload = new Thread(() -> {
+            long bytes = assetLoader.preload();
+            startupTrace.mark(StartupTrace.PRELOAD_DONE);
+            Log.i(TAG, "Preloaded " + bytes + " bytes in "
+                + (StartupTrace.now() - Process.getStartUptimeMillis()) + " ms since process start");
+        }, "asset-preload");
+        preload.start();
+
+        // 2. 同时在主线程加载WebView实现
+        try {
+            WebSettings.getDefaultUserAgent(this);
+            startupTrace.mark(StartupTrace.WEBVIEW_PROVIDER_READY);
+        } catch (RuntimeException e) {
+            // WebView正在更新或被禁用时会失败，创建WebView时会再次尝试
+            Log.w(TAG, "WebView pre-warm failed", e);
+        }
+    }
+
+    /** @return 整个进程共用的资源加载器 */
+    public AssetResourceLoader assetLoader() {
+        return assetLoader;
+    }
+
+    /** @return 消息通道的请求分发，MainActivity 用它为每个页面建立连接 */
+    public ChannelDispatcher channelDispatcher() {
+        return channelDispatcher;
+    }
+
+    /** @return 请求统计，未开启时返回null */
+    public AssetMetrics metrics() {
+        return metrics;
+    }
+
+    /** @return 冷启动时间点 */
+    public StartupTrace startupTrace() {
+        return startupTrace;
+    }
+
+    /**
+     * 系统内存紧张时的回调
+     * 释放资源加载器的内存缓存，缓存之后会按需重新填充
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (assetLoader != null) {
+            assetLoader.onTrimMemory(level);
+        }
+    }
+
+    /**
+     * 注册消息通道的请求处理器
+     * channel.echo 原样返回请求内容（文本或二进制），用于页面测量通道的吞吐量和延迟
+     * kv.* 是键值存储的读写接口，键放在名称的参数中（如"kv.put/<键>"），用法见 KvStore
+     * state.save/state.clear 保存和清除页面状态快照，用法见 PageStateStore
+     */
+    private void registerChannelHandlers() {
+        channelDispatcher.register("channel.echo", message -> message.bytes != null
+            ? ChannelDispatcher.Reply.bytes(message.bytes)
+            : ChannelDispatcher.Reply.text(message.text));
+
+        KvStore kv = assetLoader.kv();
+        channelDispatcher.register("kv.get", message -> {
+            KvStore.Value value = kv.get(requireKey(message));
+            if (value == null) return null;
+            return value.text ? ChannelDispatcher.Reply.text(value.string()) : ChannelDispatcher.Reply.bytes(value.bytes);
+        });
+        channelDispatcher.register("kv.put", message -> {
+            if (message.bytes != null) {
+                kv.put(requireKey(message), message.bytes);
+            } else {
+                kv.put(requireKey(message), message.text);
+            }
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+        channelDispatcher.register("kv.delete", message -> {
+            kv.delete(requireKey(message));
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+        channelDispatcher.register("kv.keys", message -> {
+            StringBuilder json = new StringBuilder("[");
+            for (String key : kv.keys(message.argument != null ? message.argument : "")) {
+                if (json.length() > 1) json.append(',');
+                Json.appendString(json, key);
+            }
+            return ChannelDispatcher.Reply.text(json.append(']').toString());
+        });
+        channelDispatcher.register("kv.sync", message -> {
+            kv.sync();
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+
+        PageStateStore pageState = assetLoader.pageState();
+        channelDispatcher.register("state.save", message -> {
+            if (message.text == null) {
+                throw new IllegalArgumentException("state.save expects a text payload");
+            }
+            pageState.save(message.text);
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+        channelDispatcher.register("state.clear", message -> {
+            pageState.clear();
+            return ChannelDispatcher.Reply.EMPTY;
+        });
+    }
+
+    private static String requireKey(ChannelDispatcher.Message message) {
+        if (message.argument == null || message.argument.isEmpty()) {
+            throw new IllegalArgumentException("Missing key: " + message.method + "/<key>");
+        }
+        return message.argument;
+    }
+
+    /**
+     * 在加载页面之前切换到已下载的内容包
+     * 当前内容包只检查文件头和文件表，直接在这里使用；
+     * 有待安装的新内容包时（只在下载更新后的第一次启动发生），校验全部内容需要读完整个文件，
+     * 放到后台线程进行，期间继续使用当前内容包或APK中的资源；
+     * 页面第一个请求之前完成则立即切换，否则下次启动使用（见 AssetResourceLoader.installContentPack）
+     * 校验失败的新内容包直接删除
+     */
+    private void loadContentPack() {
+        File dir = new File(getFilesDir(), CONTENT_PACK_DIR);
+        File current = new File(dir, CONTENT_PACK_CURRENT);
+        File incoming = new File(dir, CONTENT_PACK_INCOMING);
+        if (current.exists()) {
+            assetLoader.useContentPack(current);
+        }
+        if (incoming.exists()) {
+            Thread install = new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                if (!assetLoader.installContentPack(incoming, current)) {
+                    incoming.delete();
+                }
+            }, "content-pack-install");
+            install.start();
+        }
+    }
+
+    /**
+     * 判断是否开启资源请求统计
+     * 清单中的 com.example.manual.ASSET_METRICS 为 true，或者是可调试的构建时开启
+     * 统计本身不分配对象、开销很小，需要排查正式版的性能回退时可以在清单中打开
+     */
+    private boolean isMetricsEnabled(Bundle metaData) {
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            return true;
+        }
+        return metaData != null && metaData.getBoolean(METRICS_META_DATA, false);
+    }
+
+    /**
+     * 读取清单中 application 节点下的 meta-data，读取失败时返回null
+     */
+    private Bundle getAppMetaData() {
+        try {
+            ApplicationInfo info = getPackageManager().getApplicationInfo(getPackageName(), PackageManager.GET_META_DATA);
+            return info.metaData;
+        } catch (PackageManager.NameNotFoundException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.manual;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+/**
+ * 页面与原生之间的消息通道 (Helper Class)
+ *
+ * 功能说明：
+ * 在 WebView.createWebMessageChannel 创建的端口上收发消息，代替逐个拦截URL或 addJavascriptInterface：
+ * - addJavascriptInterface 的调用在单个Binder线程上同步执行，参数只能是字符串（二进制只能Base64），
+ *   一个耗时调用会挡住后面所有调用
+ * - 这里的消息异步传递，端口回调在专用的消息线程上执行（不占用UI线程），
+ *   请求由 ChannelDispatcher 交给有界线程池处理，回复合并成批次发回
+ *
+ * 连接方式：
+ * 每个页面文档加载完成后（onPageFinished），创建一对新端口，把其中一个以消息"native-channel"送给页面，
+ * 页面端脚本（/__channel.js，见 ChannelClientScript）收到后即可使用；旧文档的连接随之关闭
+ *
+ * 二进制数据：
+ * 框架的 WebMessage 只支持字符串（ArrayBuffer 只能通过 androidx.webkit 在较新的WebView上传递，本项目不依赖androidx），
+ * 因此页面发来的二进制内容按latin1编码（每字节一个字符，没有Base64的膨胀和编解码），
+ * 原生回复的大块二进制数据通过 /__blob/ 地址由页面 fetch 成 ArrayBuffer（见 BlobStore）
+ */
+class NativeChannel {
+    private static final String TAG = "WebViewDebug";
+
+    private final ChannelDispatcher dispatcher;
+    private final Uri targetOrigin; // 只把端口送给这个源的页面
+    private final HandlerThread thread;
+    private final Handler handler; // 端口回调和批次发送都在这个线程上
+
+    // 当前文档的端口和连接，只在UI线程上读写
+    private WebMessagePort port;
+    private ChannelDispatcher.Session session;
+
+    /**
+     * @param dispatcher 请求分发（整个进程共用，处理器在 ManualApp 中注册）
+     * @param origin 页面的源，如"https://mypage.test"
+     */
+    public NativeChannel(ChannelDispatcher dispatcher, String origin) {
+        this.dispatcher = dispatcher;
+        this.targetOrigin = Uri.parse(origin);
+        this.thread = new HandlerThread("native-channel");
+        this.thread.start();
+        this.handler = new Handler(thread.getLooper());
+    }
+
+    /**
+     * 为WebView当前的文档建立连接（在UI线程上调用，通常在 onPageFinished 中）
+     * 已有的连接先关闭，页面端脚本会拒绝旧连接上未完成的请求
+     */
+    public void connect(WebView webView) {
+        disconnect();
+        WebMessagePort[] ports = webView.createWebMessageChannel();
+        final WebMessagePort local = ports[0];
+        final ChannelDispatcher.Session current = dispatcher.open(
+            batch -> local.postMessage(new WebMessage(batch)), handler::post);
+        local.setWebMessageCallback(new WebMessagePort.WebMessageCallback() {
+            @Override
+            public void onMessage(WebMessagePort p, WebMessage message) {
+                String data = message.getData();
+                if (data != null) {
+                    current.receive(data);
+                }
+            }
+        }, handler);
+        port = local;
+        session = current;
+        webView.postWebMessage(new WebMessage(ChannelClientScript.PORT_MESSAGE, new WebMessagePort[]{ports[1]}),
+            targetOrigin);
+    }
+
+    /**
+     * 关闭当前连接（页面离开、WebView销毁或渲染进程退出时）
+     */
+    public void disconnect() {
+        if (session != null) {
+            session.close();
+            session = null;
+        }
+        if (port != null) {
+            final WebMessagePort old = port;
+            port = null;
+            handler.post(() -> {
+                try {
+                    old.close();
+                } catch (IllegalStateException e) {
+                    Log.w(TAG, "Channel port already closed", e); // 渲染进程已经退出
+                }
+            });
+        }
+    }
+
+    /**
+     * 释放消息线程，Activity销毁时调用
+     */
+    public void destroy() {
+        disconnect();
+        thread.quitSafely();
+    }
+}
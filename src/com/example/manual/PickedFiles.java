@@ -0,0 +1,255 @@
+package com.example.manual;
+
+import android.content.ContentResolver;
+import android.content.res.AssetFileDescriptor;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户选择的文件 (Helper Class)
+ *
+ * 功能说明：
+ * 文件选择器返回的 content:// Uri 只能交给 <input type=file>，页面用 FileReader 读取时整个文件会被复制进渲染进程，
+ * 几百MB的视频、压缩包很容易把内存撑满
+ * 这里为每个选中的文件登记一个随机令牌，页面可以直接访问 https://mypage.test/__files/<令牌>：
+ * 内容从 ContentResolver 边读边传，支持Range请求，带有正确的MIME类型和长度，
+ * <video> 可以直接拖动进度，fetch 也可以按区间分段处理
+ *
+ * 保留地址：
+ *   /__files/<令牌>    文件内容
+ *
+ * 令牌是128位随机数，只在本次进程内有效；登记数量有上限，超过时淘汰最早的文件
+ * 不提供列出所有令牌的地址：令牌只随 nativefilespicked 事件交给本次选择的页面，
+ * 其他同源脚本无法枚举之前选择的文件
+ * 选择器授予的读取权限在Activity结束前一直有效
+ */
+class PickedFiles {
+    private static final String TAG = "WebViewDebug";
+
+    /** 保留地址前缀 */
+    static final String PATH_PREFIX = "/__files/";
+
+    // 登记的文件数上限
+    private static final int MAX_FILES = 64;
+
+    /**
+     * 登记的单个文件，元数据在选择时一次性查好
+     */
+    static final class Handle {
+        final String token;
+        final Uri uri;
+        final String name; // 显示名称，可能为null
+        final long size; // 字节数，提供方没有给出时为-1
+        final String mimeType;
+
+        Handle(String token, Uri uri, String name, long size, String mimeType) {
+            this.token = token;
+            this.uri = uri;
+            this.name = name;
+            this.size = size;
+            this.mimeType = mimeType;
+        }
+    }
+
+    private final ContentResolver resolver;
+    private final String origin; // 如"https://mypage.test"，用于生成URL
+    private final AsyncStreamer streamer; // 打开文件涉及跨进程调用，有线程池时交给它
+    private final SecureRandom random = new SecureRandom();
+
+    // 按登记顺序排列，超过上限时淘汰最早的（访问需要同步）
+    private final LinkedHashMap<String, Handle> handles = new LinkedHashMap<>();
+
+    /**
+     * @param resolver 用于查询和打开文件
+     * @param domain 虚拟域名
+     * @param streamer 异步响应体，传null表示在拦截线程上打开
+     */
+    PickedFiles(ContentResolver resolver, String domain, AsyncStreamer streamer) {
+        this.resolver = resolver;
+        this.origin = "https://" + domain;
+        this.streamer = streamer;
+    }
+
+    /**
+     * 登记选中的文件
+     * 每个文件都要跨进程查询一次 ContentResolver，提供方可能很慢（如云盘），必须在工作线程调用
+     *
+     * @param uris 文件选择器返回的Uri
+     * @return 登记结果，顺序与参数相同
+     */
+    List<Handle> register(Uri[] uris) {
+        List<Handle> added = new ArrayList<>(uris.length);
+        for (Uri uri : uris) {
+            Handle handle = query(uri);
+            synchronized (handles) {
+                handles.put(handle.token, handle);
+                Iterator<String> it = handles.keySet().iterator();
+                while (handles.size() > MAX_FILES && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+            added.add(handle);
+        }
+        return added;
+    }
+
+    /**
+     * 查询文件的显示名称、大小和类型，并生成令牌
+     */
+    private Handle query(Uri uri) {
+        String name = null;
+        long size = -1;
+        try (Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE},
+                null, null, null)) {
+            if (cursor != null && cursor.moveToFirst()) {
+                int nameIndex = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                int sizeIndex = cursor.getColumnIndex(OpenableColumns.SIZE);
+                if (nameIndex >= 0 && !cursor.isNull(nameIndex)) name = cursor.getString(nameIndex);
+                if (sizeIndex >= 0 && !cursor.isNull(sizeIndex)) size = cursor.getLong(sizeIndex);
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Cannot query picked file: " + uri, e);
+        }
+
+        // 优先使用提供方给出的类型，没有时按文件名推断
+        String mime = resolver.getType(uri);
+        if (mime == null) {
+            mime = MimeTypes.fromPath(name != null ? name : "");
+        }
+
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder token = new StringBuilder(32);
+        for (byte b : bytes) {
+            token.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return new Handle(token.toString(), uri, name, size, mime);
+    }
+
+    /**
+     * 处理 /__files/ 下的请求
+     *
+     * @param path URL路径，以 PATH_PREFIX 开头
+     * @param rangeHeader Range请求头，可以为null
+     */
+    AssetResponse serve(String path, String rangeHeader) {
+        String token = path.substring(PATH_PREFIX.length());
+        Handle handle;
+        synchronized (handles) {
+            handle = handles.get(token);
+        }
+        if (handle == null) {
+            return AssetServer.notFoundResponse();
+        }
+
+        String charset = MimeTypes.charsetFor(handle.mimeType);
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Cache-Control", "no-store");
+        try {
+            if (handle.size < 0) {
+                // 长度未知（提供方是管道之类的流），只能整体顺序读取
+                return new AssetResponse(200, "OK", handle.mimeType, charset, headers,
+                    open(handle, () -> resolver.openInputStream(handle.uri)), -1);
+            }
+
+            headers.put("Accept-Ranges", "bytes");
+            ByteRange range = ByteRange.parse(rangeHeader, handle.size);
+            if (range == ByteRange.UNSATISFIABLE) {
+                headers.put("Content-Range", "bytes */" + handle.size);
+                return new AssetResponse(416, "Range Not Satisfiable", handle.mimeType, charset, headers,
+                    new ByteArrayInputStream(new byte[0]), 0);
+            }
+            if (range == null) {
+                headers.put("Content-Length", Long.toString(handle.size));
+                return new AssetResponse(200, "OK", handle.mimeType, charset, headers,
+                    open(handle, () -> openRange(handle, 0, handle.size)), handle.size);
+            }
+            headers.put("Content-Length", Long.toString(range.length));
+            headers.put("Content-Range", "bytes " + range.start + "-" + range.end() + "/" + handle.size);
+            return new AssetResponse(206, "Partial Content", handle.mimeType, charset, headers,
+                open(handle, () -> openRange(handle, range.start, range.length)), range.length);
+        } catch (IOException | SecurityException e) {
+            // 文件已被删除，或者选择器授予的权限已经失效
+            Log.e(TAG, "Cannot open picked file: " + handle.uri, e);
+            return AssetServer.notFoundResponse();
+        }
+    }
+
+    /**
+     * 打开文件的响应体：提供方是其他进程，打开可能很慢，有 AsyncStreamer 时交给它
+     */
+    private InputStream open(Handle handle, AsyncStreamer.Opener opener) throws IOException {
+        return streamer != null
+            ? streamer.stream(MimeTypes.categoryOf(handle.mimeType), opener)
+            : opener.open();
+    }
+
+    /**
+     * 打开文件中的一段字节
+     * 提供方返回可定位的文件描述符时按偏移直接读取（拖动进度与位置无关），否则从头跳过
+     */
+    private InputStream openRange(Handle handle, long start, long length) throws IOException {
+        AssetFileDescriptor afd = resolver.openAssetFileDescriptor(handle.uri, "r");
+        if (afd == null) {
+            throw new IOException("No descriptor for " + handle.uri);
+        }
+        // createInputStream 返回的流关闭时会同时关闭描述符
+        FileInputStream fis = afd.createInputStream();
+        if (afd.getDeclaredLength() != AssetFileDescriptor.UNKNOWN_LENGTH || isSeekable(fis)) {
+            return new RangeInputStream(fis.getChannel(), afd.getStartOffset() + start, length, fis);
+        }
+        return AssetSource.skipAndLimit(fis, start, length);
+    }
+
+    /**
+     * 判断描述符能否按偏移读取（普通文件可以，管道和套接字不行）
+     */
+    private static boolean isSeekable(FileInputStream fis) {
+        try {
+            fis.getChannel().position();
+            return fis.getChannel().size() > 0;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 生成JSON数组，供选择完成后通知页面使用
+     */
+    String toJson(List<Handle> list) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) sb.append(',');
+            appendHandle(sb, list.get(i));
+        }
+        return sb.append(']').toString();
+    }
+
+    private void appendHandle(StringBuilder sb, Handle h) {
+        sb.append("{\"token\":\"").append(h.token).append('"');
+        sb.append(",\"url\":\"").append(origin).append(PATH_PREFIX).append(h.token).append('"');
+        sb.append(",\"name\":");
+        if (h.name != null) Json.appendString(sb, h.name);
+        else sb.append("null");
+        sb.append(",\"size\":").append(h.size);
+        sb.append(",\"type\":");
+        Json.appendString(sb, h.mimeType);
+        sb.append('}');
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.manual;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.webkit.WebView;
+
+/**
+ * WebView的生命周期与内存管理 (Helper Class)
+ *
+ * 功能说明：
+ * WebView不会自己感知Activity的生命周期：切到后台后页面的JS计时器、requestAnimationFrame动画和媒体仍在运行，
+ * 系统内存紧张时渲染进程的缓存也不会主动释放，这里把Activity的回调转换成对WebView的相应操作
+ *
+ * 1. onPause：暂停WebView（页面的 visibilitychange 变为 hidden，动画和媒体停止）以及JS计时器
+ *    onResume：恢复以上两项
+ * 2. onTrimMemory：通知页面释放自己的缓存（见下方事件说明）；
+ *    内存严重不足时再清空WebView的内存缓存（不清磁盘缓存）
+ *    资源加载器的内存缓存和预取由 ManualApp.onTrimMemory 处理，这里不重复处理
+ * 3. onDestroy：停止加载、从界面移除并销毁WebView，释放渲染进程占用的内存
+ *    onRendererGone：渲染进程已经退出的WebView只能从界面移除并 destroy()，不能再调用其他任何方法
+ *
+ * 注意：pauseTimers/resumeTimers 作用于整个进程的所有WebView，不只是当前这一个；
+ * 因此销毁时如果计时器仍处于暂停状态要先恢复，否则之后新建的WebView（如Activity重建）会一直没有计时器
+ * 渲染进程退出时不能再通过失效的WebView恢复，暂停状态记下来，由下一个创建的 WebViewGovernor 在新WebView上恢复
+ *
+ * 页面事件 nativememorypressure（在 window 上派发）：
+ *   window.addEventListener('nativememorypressure', e => {
+ *       // e.detail.level    ComponentCallbacks2.TRIM_MEMORY_* 的数值
+ *       // e.detail.name     "running-moderate" / "running-low" / "running-critical" / "ui-hidden" /
+ *       //                   "background" / "moderate" / "complete"
+ *       // e.detail.critical 为true时应尽量释放所有可以重建的内容（图片缓存、离屏画布、预加载的数据等）
+ *   });
+ * 应用在后台时页面的计时器已经暂停，页面可能要等回到前台后才处理这个事件；
+ * 需要在切到后台时立即释放的内容，页面应在 visibilitychange（hidden）时自行处理
+ */
+class WebViewGovernor {
+    private static final String TAG = "WebViewDebug";
+
+    /** 页面监听的内存压力事件名称 */
+    static final String MEMORY_PRESSURE_EVENT = "nativememorypressure";
+
+    // 计时器被暂停、但暂停它的WebView已经失效（渲染进程退出），只在主线程访问
+    private static boolean orphanedTimerPause;
+
+    private final WebView webView;
+    private boolean timersPaused; // 当前是否由这里暂停了进程内所有WebView的计时器
+    private boolean destroyed;
+
+    /**
+     * @param webView 要管理的WebView，之后的生命周期回调都作用于它
+     */
+    public WebViewGovernor(WebView webView) {
+        this.webView = webView;
+        if (orphanedTimerPause) {
+            webView.resumeTimers(); // 上一个WebView退出时计时器处于暂停状态
+            orphanedTimerPause = false;
+        }
+    }
+
+    /**
+     * Activity回到前台：恢复WebView和JS计时器
+     */
+    public void onResume() {
+        if (destroyed) return;
+        webView.onResume();
+        if (timersPaused) {
+            webView.resumeTimers();
+            timersPaused = false;
+        }
+    }
+
+    /**
+     * Activity进入后台：暂停WebView和JS计时器，后台不再消耗CPU和电量
+     */
+    public void onPause() {
+        if (destroyed) return;
+        webView.onPause();
+        if (!timersPaused) {
+            webView.pauseTimers();
+            timersPaused = true;
+        }
+    }
+
+    /**
+     * 系统内存回收通知
+     *
+     * @param level ComponentCallbacks2.TRIM_MEMORY_* 常量
+     */
+    public void onTrimMemory(int level) {
+        if (destroyed) return;
+        boolean critical = isCritical(level);
+        Log.i(TAG, "onTrimMemory level=" + level + " (" + levelName(level) + ")" + (critical ? " critical" : ""));
+
+        webView.evaluateJavascript("window.dispatchEvent(new CustomEvent('" + MEMORY_PRESSURE_EVENT
+            + "',{detail:{level:" + level + ",name:'" + levelName(level) + "',critical:" + critical + "}}))", null);
+        if (critical) {
+            // 只清内存缓存；磁盘缓存释放不了内存，清掉反而让之后的加载变慢
+            webView.clearCache(false);
+        }
+    }
+
+    /**
+     * Activity销毁：彻底释放WebView
+     * 先从界面中移除再销毁，WebView在仍然挂在窗口上时调用 destroy() 会有警告并可能泄漏
+     */
+    public void onDestroy() {
+        if (destroyed) return;
+        destroyed = true;
+        if (timersPaused) {
+            webView.resumeTimers(); // 计时器是进程级的，不能留给下一个WebView一个暂停状态
+            timersPaused = false;
+        }
+        webView.stopLoading();
+        ViewParent parent = webView.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(webView);
+        }
+        webView.removeAllViews();
+        webView.destroy();
+    }
+
+    /**
+     * 渲染进程已经退出：只从界面移除并销毁WebView
+     * 失效的WebView上不能再调用 stopLoading、removeAllViews、resumeTimers 等方法
+     */
+    public void onRendererGone() {
+        if (destroyed) return;
+        destroyed = true;
+        if (timersPaused) {
+            orphanedTimerPause = true; // 由下一个WebView恢复
+            timersPaused = false;
+        }
+        ViewParent parent = webView.getParent();
+        if (parent instanceof ViewGroup) {
+            ((ViewGroup) parent).removeView(webView);
+        }
+        webView.destroy();
+    }
+
+    /**
+     * 是否需要页面尽量释放所有可以重建的内容：
+     * 前台运行时系统内存已严重不足，或者进程在后台且已经排在容易被杀死的位置
+     */
+    static boolean isCritical(int level) {
+        return level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL
+            || level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE;
+    }
+
+    /**
+     * 内存回收级别的名称，用于日志和页面事件
+     */
+    static String levelName(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) return "complete";
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) return "moderate";
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) return "background";
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) return "ui-hidden";
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) return "running-critical";
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) return "running-low";
+        return "running-moderate";
+    }
+}
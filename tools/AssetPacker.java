@@ -0,0 +1,570 @@
+import com.example.manual.AssetIndex;
+import com.example.manual.ContentPack;
+import com.example.manual.MimeTypes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 资源打包工具 (在构建机的JDK上运行，不打进APK)
+ *
+ * 用法：
+ *   java -cp build/tools AssetPacker index assets/dist assets/dist.index
+ *   java -cp build/tools AssetPacker pack build/apk/unaligned.apk assets
+ *   java -cp build/tools AssetPacker bundle assets/dist.index build/dist.pack
+ *
+ * 由 .vscode/tasks.json 中的 "2.0 --javac packer" 编译，
+ * "2.0.1 --gen asset index" 生成索引，"2.1 --pack assets" 把assets目录写入APK
+ *
+ * 写入APK时，已经压缩过的媒体文件以 STORED 方式存放（索引中的"s"标志），
+ * 配合之后的 zipalign，运行时可以用 AssetManager.openFd 直接按偏移读取，Range请求无需从头解压
+ *
+ * index 加上 --precompress=gzip,br 时，为JS/CSS/JSON等可压缩文件生成 .gz/.br 预压缩版本，
+ * 运行时按请求的 Accept-Encoding 直接返回压缩后的字节，由渲染进程解码；
+ * 预压缩文件在APK中同样以 STORED 方式存放，不会被再压缩一次；
+ * 上一次生成的预压缩文件每次 index 时都先从dist中删除（关闭预压缩后不会残留在APK和索引中）
+ *
+ * index 同时扫描HTML、JS、CSS中对其他本地文件的引用，把每个文件的直接依赖写入索引，
+ * 运行时页面请求某个文件时据此在后台预取它的依赖（见 Prefetcher）：
+ *   HTML  <script src>、<link rel=stylesheet/preload/modulepreload href>、<img src>、<source src>
+ *         （<a href> 和 <iframe src> 指向的是其他页面或下载，不算依赖）
+ *   JS    静态 import/export ... from "x"、动态 import("x")、new URL("x", import.meta.url)
+ *   CSS   @import 和 url()
+ * 入口HTML（默认 index.html，可用 --preload=a.html,b.html 指定）连同它的直接依赖
+ * 标记为首屏关键资源（索引中的"p"标志），APP启动时在后台预先读入内存
+ *
+ * bundle 把索引中的全部文件（包括预压缩版本）写成一个内容包（见 ContentPack），
+ * 用于不重新打包APK而更新网页：下载到设备上的应用私有目录后由 AssetResourceLoader 加载
+ */
+public class AssetPacker {
+
+    // 小于这个大小的文件不值得预压缩（压缩头和解码开销抵消收益）
+    private static final long MIN_PRECOMPRESS_SIZE = 1024;
+
+    // 预压缩版本至少要比原文件小这么多（比例）才保留
+    private static final double MAX_PRECOMPRESS_RATIO = 0.9;
+
+    // 默认的"文件名带哈希"规则：扩展名前有一段8位以上、至少含一个数字的哈希，
+    // 匹配 webpack 的 main.3f2a1b9c.js 和 Vite 的 index-D8kP2xY1.js
+    private static final String DEFAULT_IMMUTABLE_PATTERN = ".*[.-](?=[A-Za-z0-9_]*[0-9])[A-Za-z0-9_]{8,}\\.[A-Za-z0-9]+$";
+
+    // HTML中引用子资源的标签：<script src>、<link href>、<img src>、<source src>
+    // <a href>（链接的页面和下载）、<iframe src> 不是这个页面的子资源，不作为依赖，否则会被整份预取进缓存
+    private static final Pattern HTML_TAG = Pattern.compile(
+        "<(script|link|img|source)\\b([^>]*)>", Pattern.CASE_INSENSITIVE);
+
+    // 标签中的属性：名称和值（带引号）
+    private static final Pattern HTML_ATTRIBUTE = Pattern.compile(
+        "\\b([a-z-]+)\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')", Pattern.CASE_INSENSITIVE);
+
+    // 作为依赖的 <link rel>：样式表和预加载，icon、manifest、canonical 等不算
+    private static final Pattern LINK_REL = Pattern.compile(
+        "(?:^|\\s)(?:stylesheet|preload|modulepreload)(?:\\s|$)", Pattern.CASE_INSENSITIVE);
+
+    // JS中的模块引用：import/export ... from "x"、import "x"、import("x")、new URL("x", import.meta.url)
+    // 只处理以 ./ ../ / 开头或虚拟域名的地址，"react" 这类裸模块名在打包后不会出现，出现了也不是dist中的文件
+    private static final Pattern JS_REFERENCE = Pattern.compile(
+        "(?:\\b(?:import|export)\\s*(?:[\\w*${}\\s,]+?\\s*from\\s*)?|\\bimport\\s*\\(\\s*|\\bnew\\s+URL\\s*\\(\\s*)"
+        + "[\"'`]((?:\\.{1,2}/|/|https://mypage\\.test/)[^\"'`?#]+)[^\"'`]*[\"'`]");
+
+    // CSS中的引用：@import "x"、@import url(x)、url(x)（字体、背景图等）
+    private static final Pattern CSS_REFERENCE = Pattern.compile(
+        "(?:@import\\s*(?:url\\(\\s*)?|\\burl\\(\\s*)[\"']?([^\"')\\s?#]+)", Pattern.CASE_INSENSITIVE);
+
+    // 虚拟域名的绝对地址前缀，HTML中写成绝对地址的引用按本地路径处理
+    private static final String VIRTUAL_ORIGIN = "https://mypage.test/";
+
+    public static void main(String[] args) throws IOException {
+        List<String> positional = new ArrayList<>();
+        Options options = new Options();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                options.parse(arg);
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() == 3 && positional.get(0).equals("index")) {
+            writeIndex(new File(positional.get(1)), new File(positional.get(2)), options);
+        } else if (positional.size() == 3 && positional.get(0).equals("pack")) {
+            pack(new File(positional.get(1)), new File(positional.get(2)));
+        } else if (positional.size() == 3 && positional.get(0).equals("bundle")) {
+            bundle(new File(positional.get(1)), new File(positional.get(2)));
+        } else {
+            System.err.println("usage: AssetPacker index [--precompress=gzip,br] [--brotli=<exe>] [--no-compress=ext,...]");
+            System.err.println("                         [--immutable=<regex>] [--preload=a.html,...] <distDir> <indexFile>");
+            System.err.println("       AssetPacker pack <apk> <assetsDir>");
+            System.err.println("       AssetPacker bundle <indexFile> <packFile>");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * index 命令的可选参数
+     */
+    private static class Options {
+        boolean gzip; // 生成 .gz 版本
+        boolean brotli; // 生成 .br 版本（需要 --brotli 指定外部 brotli 程序，JDK没有Brotli编码器）
+        String brotliExe;
+        Set<String> noCompress = new HashSet<>(); // 按扩展名关闭预压缩
+        Pattern immutable = Pattern.compile(DEFAULT_IMMUTABLE_PATTERN); // 判断文件名是否带哈希
+        List<String> preloadRoots = new ArrayList<>(Arrays.asList(AssetIndex.DEFAULT_DOCUMENT)); // 扫描首屏资源的入口HTML
+
+        void parse(String arg) {
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "" : arg.substring(eq + 1);
+            switch (name) {
+                case "--precompress":
+                    for (String enc : value.split(",")) {
+                        if (enc.equals("gzip")) gzip = true;
+                        else if (enc.equals("br")) brotli = true;
+                        else throw new IllegalArgumentException("Unknown encoding: " + enc);
+                    }
+                    break;
+                case "--brotli":
+                    brotliExe = value;
+                    break;
+                case "--no-compress":
+                    noCompress.addAll(Arrays.asList(value.split(",")));
+                    break;
+                case "--immutable":
+                    immutable = Pattern.compile(value);
+                    break;
+                case "--preload":
+                    preloadRoots = value.isEmpty() ? new ArrayList<>() : Arrays.asList(value.split(","));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        boolean precompress() {
+            return gzip || brotli;
+        }
+
+        /**
+         * 判断文件是否需要预压缩
+         * 已经压缩过的格式（图片、音视频等）永远不会再包一层
+         */
+        boolean shouldPrecompress(String path, String mimeType, long size) {
+            if (size < MIN_PRECOMPRESS_SIZE || MimeTypes.isPrecompressed(mimeType)) {
+                return false;
+            }
+            int dot = path.lastIndexOf('.');
+            return dot < 0 || !noCompress.contains(path.substring(dot + 1));
+        }
+    }
+
+    /**
+     * 判断文件在APK中是否以不压缩方式存储
+     * index 和 pack 两个步骤都用这一个判断，保证索引里的标志与APK实际存储方式一致
+     */
+    private static boolean isStored(String path) {
+        return MimeTypes.isPrecompressed(MimeTypes.fromPath(path));
+    }
+
+    /**
+     * 扫描dist目录并生成资源索引
+     * 开启预压缩时，同时为可压缩的文件生成 .gz/.br 版本，并在原文件的标志中记录
+     *
+     * @param distDir 网页资源目录（如assets/dist），目录名即运行时的assetBase
+     * @param indexFile 输出的索引文件
+     * @param options 可选参数
+     */
+    private static void writeIndex(File distDir, File indexFile, Options options) throws IOException {
+        if (!distDir.isDirectory()) {
+            throw new IOException("Not a directory: " + distDir);
+        }
+        if (options.brotli && options.brotliExe == null) {
+            throw new IllegalArgumentException("--precompress=br requires --brotli=<exe>");
+        }
+
+        List<String> paths = new ArrayList<>();
+        listFiles(distDir, "", paths);
+        int stale = deleteStaleVariants(distDir, paths);
+
+        String assetBase = distDir.getName();
+        Map<String, Set<String>> deps = findDependencies(distDir, paths);
+        Set<String> preload = findPreload(deps, options.preloadRoots);
+        List<AssetIndex.Entry> entries = new ArrayList<>();
+        int variants = 0;
+        int edges = 0;
+        for (String path : paths) {
+            // 制表符和换行是索引的分隔符，不能出现在文件名里
+            if (path.indexOf('\t') >= 0 || path.indexOf('\n') >= 0) {
+                throw new IOException("Unsupported file name: " + path);
+            }
+            File file = new File(distDir, path);
+            String mime = MimeTypes.fromPath(path);
+            StringBuilder flags = new StringBuilder();
+            if (isStored(path)) flags.append('s');
+            if (options.immutable.matcher(path).matches()) flags.append('i');
+            if (preload.contains(path)) flags.append('p');
+
+            if (options.shouldPrecompress(path, mime, file.length())) {
+                if (options.gzip && writeVariant(file, ".gz", null)) {
+                    flags.append('g');
+                    entries.add(variantEntry(assetBase, path + ".gz", new File(distDir, path + ".gz")));
+                    variants++;
+                }
+                if (options.brotli && writeVariant(file, ".br", options.brotliExe)) {
+                    flags.append('b');
+                    entries.add(variantEntry(assetBase, path + ".br", new File(distDir, path + ".br")));
+                    variants++;
+                }
+            }
+            Set<String> fileDeps = deps.get(path);
+            entries.add(new AssetIndex.Entry(assetBase, path, file.length(), mime,
+                flags.length() == 0 ? "-" : flags.toString(), contentHash(file),
+                fileDeps.isEmpty() ? "-" : String.join(",", fileDeps)));
+            edges += fileDeps.size();
+        }
+        // 按路径排序，保证同样的输入生成完全相同的索引
+        entries.sort(Comparator.comparing(e -> e.path));
+
+        try (OutputStream out = new FileOutputStream(indexFile)) {
+            AssetIndex.write(out, entries);
+        }
+        System.out.println("asset index: " + (entries.size() - variants) + " files, "
+            + variants + " precompressed variants (" + stale + " stale removed), " + edges + " dependencies, "
+            + preload.size() + " preload -> " + indexFile);
+    }
+
+    /**
+     * 删除上一次打包在dist中生成的预压缩文件（与原文件同名加 .gz/.br 的文件），并从列表中去掉
+     * 无论这次是否开启预压缩都要删除：需要时 writeIndex 会重新生成；
+     * 只从列表中去掉的话，它们仍留在dist中，会被 pack 写进APK，关闭预压缩时还会被当作普通文件写入索引
+     * 注意：因此dist中不能有手工放入、与另一个文件同名加 .gz/.br 的文件
+     *
+     * @param paths dist中的全部文件（相对路径），删除的文件同时从中去掉
+     * @return 删除的文件数
+     */
+    private static int deleteStaleVariants(File distDir, List<String> paths) throws IOException {
+        Set<String> all = new HashSet<>(paths);
+        List<String> stale = new ArrayList<>();
+        for (String path : paths) {
+            if ((path.endsWith(".gz") || path.endsWith(".br")) && all.contains(path.substring(0, path.length() - 3))) {
+                stale.add(path);
+            }
+        }
+        for (String path : stale) {
+            Files.delete(new File(distDir, path).toPath());
+        }
+        paths.removeAll(stale);
+        return stale.size();
+    }
+
+    /**
+     * 扫描每个文件直接引用的本地文件
+     * 只扫描HTML、JS、CSS；只保留dist中存在的文件，外部地址、data: 等以及自身引用忽略
+     * 路径中带逗号的文件无法写入依赖字段，同样忽略
+     *
+     * @param distDir 网页资源目录
+     * @param paths dist中的全部文件（相对路径）
+     * @return 每个文件的直接依赖（相对路径，按在文件中出现的顺序），没有依赖的文件对应空集合
+     */
+    private static Map<String, Set<String>> findDependencies(File distDir, List<String> paths) throws IOException {
+        Set<String> existing = new HashSet<>(paths);
+        Map<String, Set<String>> result = new HashMap<>();
+        for (String path : paths) {
+            Set<String> deps = new LinkedHashSet<>();
+            result.put(path, deps);
+            int category = MimeTypes.categoryOf(MimeTypes.fromPath(path));
+            if (category != MimeTypes.CATEGORY_DOCUMENT && category != MimeTypes.CATEGORY_SCRIPT
+                    && category != MimeTypes.CATEGORY_STYLE) {
+                continue;
+            }
+            String text = new String(Files.readAllBytes(new File(distDir, path).toPath()), StandardCharsets.UTF_8);
+            List<String> refs = new ArrayList<>();
+            if (category == MimeTypes.CATEGORY_DOCUMENT) {
+                findHtmlReferences(text, refs);
+            } else {
+                Matcher m = (category == MimeTypes.CATEGORY_SCRIPT ? JS_REFERENCE : CSS_REFERENCE).matcher(text);
+                while (m.find()) {
+                    refs.add(m.group(1));
+                }
+            }
+            String baseDir = path.contains("/") ? path.substring(0, path.lastIndexOf('/') + 1) : "";
+            for (String ref : refs) {
+                String dep = resolveReference(baseDir, ref.trim());
+                if (dep != null && existing.contains(dep) && !dep.equals(path) && dep.indexOf(',') < 0) {
+                    deps.add(dep);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 找出HTML中子资源标签引用的地址（去掉查询串和片段）
+     * <script src>、<img src>、<source src>，以及 rel 为 stylesheet/preload/modulepreload 的 <link href>
+     */
+    private static void findHtmlReferences(String html, List<String> out) {
+        Matcher tag = HTML_TAG.matcher(html);
+        while (tag.find()) {
+            String name = tag.group(1).toLowerCase();
+            Map<String, String> attributes = new HashMap<>();
+            Matcher attr = HTML_ATTRIBUTE.matcher(tag.group(2));
+            while (attr.find()) {
+                attributes.put(attr.group(1).toLowerCase(), attr.group(2) != null ? attr.group(2) : attr.group(3));
+            }
+            String ref;
+            if (name.equals("link")) {
+                String rel = attributes.get("rel");
+                ref = rel != null && LINK_REL.matcher(rel.trim()).find() ? attributes.get("href") : null;
+            } else {
+                ref = attributes.get("src");
+            }
+            if (ref == null) continue;
+            int cut = ref.length();
+            if (ref.indexOf('?') >= 0) cut = Math.min(cut, ref.indexOf('?'));
+            if (ref.indexOf('#') >= 0) cut = Math.min(cut, ref.indexOf('#'));
+            if (cut > 0) out.add(ref.substring(0, cut));
+        }
+    }
+
+    /**
+     * 找出首屏关键资源：入口HTML本身，以及它的直接依赖
+     *
+     * @param deps findDependencies 的结果
+     * @param roots 入口HTML（相对路径），dist中不存在的忽略
+     * @return 需要预读的文件（相对路径），按发现顺序排列
+     */
+    private static Set<String> findPreload(Map<String, Set<String>> deps, List<String> roots) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String root : roots) {
+            Set<String> rootDeps = deps.get(root);
+            if (rootDeps == null) continue;
+            result.add(root);
+            result.addAll(rootDeps);
+        }
+        return result;
+    }
+
+    /**
+     * 把HTML/JS/CSS中的引用换算成相对dist的路径，外部地址返回null
+     */
+    private static String resolveReference(String baseDir, String ref) {
+        if (ref.startsWith(VIRTUAL_ORIGIN)) {
+            ref = ref.substring(VIRTUAL_ORIGIN.length() - 1);
+        } else if (ref.startsWith("//") || ref.indexOf(':') >= 0) {
+            return null; // 其他域名，或者 data:、javascript: 等
+        }
+        String path = ref.startsWith("/") ? ref.substring(1) : baseDir + ref;
+        // 处理 ./ 和 ../
+        List<String> parts = new ArrayList<>();
+        for (String part : path.split("/")) {
+            if (part.isEmpty() || part.equals(".")) continue;
+            if (part.equals("..")) {
+                if (parts.isEmpty()) return null;
+                parts.remove(parts.size() - 1);
+            } else {
+                parts.add(part);
+            }
+        }
+        return String.join("/", parts);
+    }
+
+    private static AssetIndex.Entry variantEntry(String assetBase, String path, File file) throws IOException {
+        return new AssetIndex.Entry(assetBase, path, file.length(), MimeTypes.fromPath(path),
+            isStored(path) ? "s" : "-", contentHash(file));
+    }
+
+    /**
+     * 计算文件内容哈希：SHA-256的前20个十六进制字符（80位），用作ETag
+     */
+    private static String contentHash(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                digest.update(buf, 0, n);
+            }
+        }
+        StringBuilder hex = new StringBuilder();
+        byte[] sum = digest.digest();
+        for (int i = 0; i < 10; i++) {
+            hex.append(String.format("%02x", sum[i]));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * 生成预压缩版本，压缩效果不明显时删除并返回false
+     *
+     * @param file 原文件
+     * @param suffix ".gz" 或 ".br"
+     * @param brotliExe 外部 brotli 程序路径（仅 .br 使用）
+     */
+    private static boolean writeVariant(File file, String suffix, String brotliExe) throws IOException {
+        File variant = new File(file.getPath() + suffix);
+        if (suffix.equals(".gz")) {
+            try (InputStream in = new FileInputStream(file);
+                 OutputStream out = new GZIPOutputStream(new FileOutputStream(variant)) {
+                     { def.setLevel(Deflater.BEST_COMPRESSION); }
+                 }) {
+                in.transferTo(out);
+            }
+        } else {
+            Process process = new ProcessBuilder(brotliExe, "-q", "11", "-f", "-o", variant.getPath(), file.getPath())
+                .inheritIO().start();
+            try {
+                if (process.waitFor() != 0) {
+                    throw new IOException("brotli failed for " + file);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted", e);
+            }
+        }
+        if (variant.length() > file.length() * MAX_PRECOMPRESS_RATIO) {
+            Files.delete(variant.toPath());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 把assets目录写入APK（替换APK中原有的assets/条目，其他条目原样保留）
+     *
+     * @param apk 由 aapt2 link 生成的APK
+     * @param assetsDir 本地assets目录
+     */
+    private static void pack(File apk, File assetsDir) throws IOException {
+        List<String> files = new ArrayList<>();
+        listFiles(assetsDir, "", files);
+        files.sort(null);
+
+        File tmp = new File(apk.getPath() + ".tmp");
+        int stored = 0;
+        try (ZipFile src = new ZipFile(apk);
+             ZipOutputStream out = new ZipOutputStream(new FileOutputStream(tmp))) {
+            // 1. 复制APK中已有的条目（清单、resources.arsc等），保持原来的压缩方式
+            Enumeration<? extends ZipEntry> entries = src.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry e = entries.nextElement();
+                if (e.getName().startsWith("assets/")) continue;
+                ZipEntry copy = new ZipEntry(e.getName());
+                copy.setTime(e.getTime());
+                copy.setMethod(e.getMethod());
+                if (e.getMethod() == ZipEntry.STORED) {
+                    copy.setSize(e.getSize());
+                    copy.setCompressedSize(e.getSize());
+                    copy.setCrc(e.getCrc());
+                }
+                out.putNextEntry(copy);
+                try (InputStream in = src.getInputStream(e)) {
+                    in.transferTo(out);
+                }
+                out.closeEntry();
+            }
+
+            // 2. 写入assets目录下的文件
+            for (String rel : files) {
+                File file = new File(assetsDir, rel);
+                ZipEntry entry = new ZipEntry("assets/" + rel);
+                entry.setTime(file.lastModified());
+                if (isStored(rel)) {
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(file.length());
+                    entry.setCompressedSize(file.length());
+                    entry.setCrc(crc32(file));
+                    stored++;
+                } else {
+                    entry.setMethod(ZipEntry.DEFLATED);
+                }
+                out.putNextEntry(entry);
+                try (InputStream in = new FileInputStream(file)) {
+                    in.transferTo(out);
+                }
+                out.closeEntry();
+            }
+        }
+        Files.move(tmp.toPath(), apk.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("packed " + files.size() + " assets (" + stored + " stored) -> " + apk);
+    }
+
+    /**
+     * 把索引中的文件写成内容包
+     * 直接使用 index 命令生成的索引（标志、哈希、预压缩版本都已经算好），资源目录是索引文件旁边的同名目录
+     *
+     * @param indexFile 资源索引（如assets/dist.index，对应的资源目录为assets/dist）
+     * @param packFile 输出的内容包
+     */
+    private static void bundle(File indexFile, File packFile) throws IOException {
+        String name = indexFile.getName();
+        if (!name.endsWith(".index")) {
+            throw new IOException("Not an index file: " + indexFile);
+        }
+        String assetBase = name.substring(0, name.length() - ".index".length());
+        File distDir = new File(indexFile.getAbsoluteFile().getParentFile(), assetBase);
+
+        AssetIndex index;
+        try (InputStream in = new FileInputStream(indexFile)) {
+            index = AssetIndex.read(in, assetBase);
+        }
+        ContentPack.write(packFile, distDir, index.entries());
+        System.out.println("content pack: " + index.size() + " files, " + packFile.length() + " bytes -> " + packFile);
+    }
+
+    private static void listFiles(File dir, String prefix, List<String> out) throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            throw new IOException("Cannot list: " + dir);
+        }
+        for (File child : children) {
+            if (child.isDirectory()) {
+                listFiles(child, prefix + child.getName() + "/", out);
+            } else {
+                out.add(prefix + child.getName());
+            }
+        }
+    }
+
+    private static long crc32(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                crc.update(buf, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+}